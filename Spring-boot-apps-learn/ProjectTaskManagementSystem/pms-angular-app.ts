@@ -113,6 +113,11 @@ export interface Task {
   createdAt?: Date;
 }
 
+export interface TaskPage {
+  items: Task[];
+  nextCursor: string | null;
+}
+
 // src/app/services/auth.service.ts
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
@@ -192,9 +197,9 @@ export class ProjectService {
 
 // src/app/services/task.service.ts
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { Task } from '../models/task.model';
+import { Task, TaskPage } from '../models/task.model';
 import { environment } from '../../environments/environment';
 
 @Injectable({
@@ -203,8 +208,13 @@ import { environment } from '../../environments/environment';
 export class TaskService {
   constructor(private http: HttpClient) { }
 
-  getTasks(projectId: number): Observable<Task[]> {
-    return this.http.get<Task[]>(`${environment.apiUrl}/tasks/project/${projectId}`);
+  // Pass the previous page's nextCursor to get the next page
+  getTasks(projectId: number, after?: string, size = 100): Observable<TaskPage> {
+    let params = new HttpParams().set('size', size);
+    if (after) {
+      params = params.set('after', after);
+    }
+    return this.http.get<TaskPage>(`${environment.apiUrl}/tasks/project/${projectId}`, { params });
   }
 
   createTask(task: Task): Observable<Task> {
@@ -311,6 +321,94 @@ export class ProjectListComponent implements OnInit {
   </mat-table>
 </div>
 
+// src/app/components/task-list/task-list.component.ts
+import { Component, Input, OnChanges } from '@angular/core';
+import { TaskService } from '../../services/task.service';
+import { Task } from '../../models/task.model';
+
+@Component({
+  selector: 'app-task-list',
+  templateUrl: './task-list.component.html'
+})
+export class TaskListComponent implements OnChanges {
+  @Input() projectId!: number;
+  tasks: Task[] = [];
+  displayedColumns: string[] = ['name', 'deadline', 'status', 'actions'];
+  // Where the next page starts; null once the last page is loaded
+  nextCursor: string | null = null;
+  loading = false;
+
+  constructor(private taskService: TaskService) { }
+
+  ngOnChanges() {
+    this.tasks = [];
+    this.nextCursor = null;
+    this.loadMore();
+  }
+
+  loadMore() {
+    if (this.loading) {
+      return;
+    }
+    this.loading = true;
+    this.taskService.getTasks(this.projectId, this.nextCursor ?? undefined).subscribe(
+      page => {
+        // A new array, so mat-table renders the appended rows
+        this.tasks = [...this.tasks, ...page.items];
+        this.nextCursor = page.nextCursor;
+        this.loading = false;
+      },
+      () => this.loading = false
+    );
+  }
+
+  deleteTask(id: number) {
+    if (confirm('Are you sure you want to delete this task?')) {
+      this.taskService.deleteTask(id).subscribe(() => {
+        this.tasks = this.tasks.filter(task => task.id !== id);
+      });
+    }
+  }
+}
+
+// src/app/components/task-list/task-list.component.html
+<div class="mt-4">
+  <mat-table [dataSource]="tasks" class="w-full">
+    <ng-container matColumnDef="name">
+      <mat-header-cell *matHeaderCellDef>Name</mat-header-cell>
+      <mat-cell *matCellDef="let task">{{task.name}}</mat-cell>
+    </ng-container>
+
+    <ng-container matColumnDef="deadline">
+      <mat-header-cell *matHeaderCellDef>Deadline</mat-header-cell>
+      <mat-cell *matCellDef="let task">{{task.deadline | date}}</mat-cell>
+    </ng-container>
+
+    <ng-container matColumnDef="status">
+      <mat-header-cell *matHeaderCellDef>Status</mat-header-cell>
+      <mat-cell *matCellDef="let task">{{task.status}}</mat-cell>
+    </ng-container>
+
+    <ng-container matColumnDef="actions">
+      <mat-header-cell *matHeaderCellDef>Actions</mat-header-cell>
+      <mat-cell *matCellDef="let task">
+        <button mat-icon-button color="warn" (click)="deleteTask(task.id)">
+          <mat-icon>delete</mat-icon>
+        </button>
+      </mat-cell>
+    </ng-container>
+
+    <mat-header-row *matHeaderRowDef="displayedColumns"></mat-header-row>
+    <mat-row *matRowDef="let row; columns: displayedColumns;"></mat-row>
+  </mat-table>
+
+  <div class="flex justify-center mt-4" *ngIf="nextCursor">
+    <button mat-stroked-button (click)="loadMore()" [disabled]="loading">
+      Load more
+    </button>
+  </div>
+</div>
+
 // src/app/components/login/login.component.ts
 import { Component } from '@angular/core';
 import { FormBuilder, FormGroup, Validators } from '@angular/forms';
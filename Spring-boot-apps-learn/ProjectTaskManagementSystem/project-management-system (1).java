@@ -2,10 +2,16 @@
 package com.pms.repository;
 
 import com.pms.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Runs on every login and authenticated request: the result (the user's id) is cached
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
@@ -16,31 +22,68 @@ public interface UserRepository extends JpaRepository<User, Long> {
 package com.pms.repository;
 
 import com.pms.model.Project;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 public interface ProjectRepository extends JpaRepository<Project, Long> {
+    // The dashboard's project list, cached until any project changes
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Project> findAll();
+
     List<Project> findByNameContainingIgnoreCase(String name);
 }
 
 // src/main/java/com/pms/repository/TaskRepository.java
 package com.pms.repository;
 
+import com.pms.dto.TaskSummary;
 import com.pms.model.Task;
 import com.pms.model.TaskStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByProjectId(Long projectId);
-    List<Task> findByAssignedToId(Long userId);
-    List<Task> findByStatus(TaskStatus status);
-    List<Task> findByDeadlineBetween(LocalDateTime start, LocalDateTime end);
-    
-    @Query("SELECT t FROM Task t WHERE t.status = ?1 AND t.deadline BETWEEN ?2 AND ?3")
-    List<Task> findByStatusAndDeadlineBetween(TaskStatus status, LocalDateTime start, LocalDateTime end);
+    // Listings select TaskSummary rows in (deadline, id) order; the next page starts after the last row's keys
+    String SUMMARY = "SELECT new com.pms.dto.TaskSummary(t.id, t.name, t.description, t.deadline, t.status, "
+        + "t.project.id, a.id, t.createdAt) FROM Task t LEFT JOIN t.assignedTo a ";
+    String AFTER = " AND (t.deadline > :deadline OR (t.deadline = :deadline AND t.id > :id))";
+    String KEYSET_ORDER = " ORDER BY t.deadline, t.id";
+
+    // Serializing a Task reads its project and assignee, so fetch them in the same query
+    @EntityGraph(Task.WITH_PROJECT_AND_ASSIGNEE)
+    Optional<Task> findWithProjectAndAssigneeById(Long id);
+
+    @Query(SUMMARY + "WHERE t.project.id = :projectId" + KEYSET_ORDER)
+    Stream<TaskSummary> streamSummariesByProject(Long projectId, Limit limit);
+
+    @Query(SUMMARY + "WHERE t.project.id = :projectId" + AFTER + KEYSET_ORDER)
+    Stream<TaskSummary> streamSummariesByProjectAfter(Long projectId, LocalDateTime deadline, Long id, Limit limit);
+
+    @Query(SUMMARY + "WHERE a.id = :userId" + KEYSET_ORDER)
+    Stream<TaskSummary> streamSummariesByUser(Long userId, Limit limit);
+
+    @Query(SUMMARY + "WHERE a.id = :userId" + AFTER + KEYSET_ORDER)
+    Stream<TaskSummary> streamSummariesByUserAfter(Long userId, LocalDateTime deadline, Long id, Limit limit);
+
+    // The first page of a date range starts after (start, 0)
+    @Query(SUMMARY + "WHERE t.deadline BETWEEN :start AND :end" + AFTER + KEYSET_ORDER)
+    Stream<TaskSummary> streamSummariesByDeadlineBetweenAfter(LocalDateTime start, LocalDateTime end,
+                                                              LocalDateTime deadline, Long id, Limit limit);
+
+    @Query(SUMMARY + "WHERE t.status = :status AND t.deadline BETWEEN :start AND :end" + AFTER + KEYSET_ORDER)
+    Stream<TaskSummary> streamSummariesByStatusAndDeadlineBetweenAfter(TaskStatus status, LocalDateTime start,
+                                                                       LocalDateTime end, LocalDateTime deadline,
+                                                                       Long id, Limit limit);
 }
 
 // src/main/java/com/pms/dto/UserDto.java
@@ -113,6 +156,53 @@ public class TaskDto {
     private Long assignedToId;
 }
 
+// src/main/java/com/pms/dto/TaskSummary.java
+package com.pms.dto;
+
+import com.pms.model.TaskStatus;
+import java.time.LocalDateTime;
+
+// A task as listed, projected by the query: no entity or association is loaded
+public record TaskSummary(Long id, String name, String description, LocalDateTime deadline, TaskStatus status,
+                          Long projectId, Long assignedToId, LocalDateTime createdAt) {
+}
+
+// src/main/java/com/pms/dto/TaskCursor.java
+package com.pms.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position in a (deadline, id) ordered listing, passed to clients as an opaque string
+public record TaskCursor(LocalDateTime deadline, Long id) {
+    private static final char SEPARATOR = '|';
+
+    public static TaskCursor after(TaskSummary task) {
+        return new TaskCursor(task.deadline(), task.id());
+    }
+
+    public static TaskCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new TaskCursor(LocalDateTime.parse(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String value = deadline.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
+
 // src/main/java/com/pms/service/UserService.java
 package com.pms.service;
 
@@ -208,7 +298,9 @@ public class ProjectService {
 // src/main/java/com/pms/service/TaskService.java
 package com.pms.service;
 
+import com.pms.dto.TaskCursor;
 import com.pms.dto.TaskDto;
+import com.pms.dto.TaskSummary;
 import com.pms.exception.ResourceNotFoundException;
 import com.pms.model.Project;
 import com.pms.model.Task;
@@ -216,10 +308,12 @@ import com.pms.model.TaskStatus;
 import com.pms.model.User;
 import com.pms.repository.TaskRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -247,24 +341,51 @@ public class TaskService {
     }
 
     public Task getTaskById(Long id) {
-        return taskRepository.findById(id)
+        return taskRepository.findWithProjectAndAssigneeById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
     }
 
-    public List<Task> getTasksByProject(Long projectId) {
-        return taskRepository.findByProjectId(projectId);
+    // Listings hand up to limit rows after the cursor (or from the start) to the consumer
+    // while the transaction, and with it the result set, is still open
+
+    @Transactional(readOnly = true)
+    public void streamTasksByProject(Long projectId, TaskCursor after, int limit,
+                                     Consumer<Stream<TaskSummary>> consumer) {
+        try (Stream<TaskSummary> tasks = after == null
+                ? taskRepository.streamSummariesByProject(projectId, Limit.of(limit))
+                : taskRepository.streamSummariesByProjectAfter(projectId, after.deadline(), after.id(),
+                    Limit.of(limit))) {
+            consumer.accept(tasks);
+        }
     }
 
-    public List<Task> getTasksByUser(Long userId) {
-        return taskRepository.findByAssignedToId(userId);
+    @Transactional(readOnly = true)
+    public void streamTasksByUser(Long userId, TaskCursor after, int limit, Consumer<Stream<TaskSummary>> consumer) {
+        try (Stream<TaskSummary> tasks = after == null
+                ? taskRepository.streamSummariesByUser(userId, Limit.of(limit))
+                : taskRepository.streamSummariesByUserAfter(userId, after.deadline(), after.id(), Limit.of(limit))) {
+            consumer.accept(tasks);
+        }
     }
 
-    public List<Task> getTasksByDateRange(LocalDateTime start, LocalDateTime end) {
-        return taskRepository.findByDeadlineBetween(start, end);
+    @Transactional(readOnly = true)
+    public void streamTasksByDateRange(LocalDateTime start, LocalDateTime end, TaskCursor after, int limit,
+                                       Consumer<Stream<TaskSummary>> consumer) {
+        TaskCursor from = after == null ? new TaskCursor(start, 0L) : after;
+        try (Stream<TaskSummary> tasks = taskRepository.streamSummariesByDeadlineBetweenAfter(
+                start, end, from.deadline(), from.id(), Limit.of(limit))) {
+            consumer.accept(tasks);
+        }
     }
 
-    public List<Task> getTasksByStatusAndDateRange(TaskStatus status, LocalDateTime start, LocalDateTime end) {
-        return taskRepository.findByStatusAndDeadlineBetween(status, start, end);
+    @Transactional(readOnly = true)
+    public void streamTasksByStatusAndDateRange(TaskStatus status, LocalDateTime start, LocalDateTime end,
+                                                TaskCursor after, int limit, Consumer<Stream<TaskSummary>> consumer) {
+        TaskCursor from = after == null ? new TaskCursor(start, 0L) : after;
+        try (Stream<TaskSummary> tasks = taskRepository.streamSummariesByStatusAndDeadlineBetweenAfter(
+                status, start, end, from.deadline(), from.id(), Limit.of(limit))) {
+            consumer.accept(tasks);
+        }
     }
 
     @Transactional
@@ -293,6 +414,7 @@ public class TaskService {
 package com.pms.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -302,10 +424,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -314,6 +439,9 @@ public class SecurityConfig {
     private final JwtAuthFilter jwtAuthFilter;
     private final UserDetailsServiceImpl userDetailsService;
 
+    @Value("${security.bcrypt.strength}")
+    private int bcryptStrength;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -336,12 +464,464 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder());
+        // Re-encodes a password on successful login when its hash is outdated (see passwordEncoder)
+        provider.setUserDetailsPasswordService(userDetailsService);
         return provider;
     }
 
+    // New hashes are "{bcrypt}" + BCrypt at security.bcrypt.strength. Hashes from before the prefix,
+    // or at a lower strength, still match and are replaced on the user's next login
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+}
+
+// src/main/java/com/pms/security/JwtService.java
+package com.pms.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+@Service
+public class JwtService {
+    private final SecretKey key;
+    private final long expiration;
+
+    public JwtService(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.expiration = expiration;
+    }
+
+    public String generateToken(Authentication authentication) {
+        Date now = new Date();
+        return Jwts.builder()
+            .setSubject(authentication.getName())
+            .setIssuedAt(now)
+            .setExpiration(new Date(now.getTime() + expiration))
+            .signWith(key)
+            .compact();
+    }
+
+    // Checks the signature and expiry, throwing JwtException if either fails
+    public Claims parseToken(String token) {
+        return Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build()
+            .parseClaimsJws(token)
+            .getBody();
+    }
+}
+
+// src/main/java/com/pms/security/UserDetailsServiceImpl.java
+package com.pms.security;
+
+import com.pms.model.User;
+import com.pms.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Service
+@RequiredArgsConstructor
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+    private final UserRepository userRepository;
+
+    @Override
+    public VersionedUser loadUserByUsername(String username) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return new VersionedUser(
+            user.getUsername(),
+            user.getPassword(),
+            user.getRoles().stream().map(role -> new SimpleGrantedAuthority(role.name())).toList(),
+            user.getId(),
+            user.getVersion()
+        );
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        user.setPassword(newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+            .password(newPassword)
+            .build();
+    }
+
+    // The row the details were read from, so VerifiedTokenCache can tell a read that lost a race
+    // with a committed change
+    public static class VersionedUser extends org.springframework.security.core.userdetails.User {
+        private static final long serialVersionUID = 1L;
+
+        private final long id;
+        private final long version;
+
+        public VersionedUser(String username, String password, Collection<? extends GrantedAuthority> authorities,
+                             long id, long version) {
+            super(username, password, authorities);
+            this.id = id;
+            this.version = version;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
+
+// src/main/java/com/pms/security/VerifiedTokenCache.java
+package com.pms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+// Tokens already verified, with the authorities their user had at the time, so an authenticated
+// request costs a hash lookup instead of a signature check and a user query. Entries are keyed by
+// the token's SHA-256 and live until the token expires or for jwt.cache.ttl, whichever is sooner.
+// A change to their user that commits on this instance drops them at once; the cache is per
+// instance, so on the others the TTL bounds how long a deleted or demoted user keeps access.
+// Each entry is stamped with the version of the user row it was read from, and a read that
+// started before a change committed is rejected instead of being served until the TTL
+@Component
+public class VerifiedTokenCache {
+    private final JwtService jwtService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache<String, VerifiedToken> tokens;
+    // Per username, the user row and lowest version still current after the last committed change
+    private final Cache<String, UserChangedEvent> changes;
+
+    public VerifiedTokenCache(JwtService jwtService, UserDetailsServiceImpl userDetailsService,
+                              MeterRegistry meterRegistry, @Value("${jwt.cache.max-size}") long maxSize,
+                              @Value("${jwt.cache.ttl}") Duration ttl) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokens = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new UntilTokenExpires(ttl))
+            .recordStats()
+            .build();
+        // Outlives any entry loaded before the change it records
+        this.changes = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl.multipliedBy(2))
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "verified-tokens");
+    }
+
+    public Optional<VerifiedToken> verify(String token) {
+        // Invalid tokens are not cached: the loader returns null for them
+        String hash = hash(token);
+        VerifiedToken verified = tokens.get(hash, h -> load(token));
+        if (verified != null && isStale(verified)) {
+            // Read before a change to its user committed: read the user again
+            tokens.asMap().remove(hash, verified);
+            verified = tokens.get(hash, h -> load(token));
+        }
+        // Still stale only if another change committed meanwhile
+        return Optional.ofNullable(verified).filter(t -> !isStale(t));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        // Recorded first, so a load racing the eviction below is caught by isStale()
+        changes.asMap().merge(event.username(), event, (previous, current) ->
+            previous.userId() == current.userId() && previous.version() > current.version() ? previous : current);
+        tokens.asMap().values().removeIf(token -> token.username().equals(event.username()));
+    }
+
+    private boolean isStale(VerifiedToken token) {
+        UserChangedEvent change = changes.getIfPresent(token.username());
+        return change != null && change.userId() == token.userId() && token.version() < change.version();
+    }
+
+    private VerifiedToken load(String token) {
+        try {
+            Claims claims = jwtService.parseToken(token);
+            UserDetailsServiceImpl.VersionedUser user = userDetailsService.loadUserByUsername(claims.getSubject());
+            return new VerifiedToken(claims, List.copyOf(user.getAuthorities()), user.getId(), user.getVersion());
+        } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record VerifiedToken(Claims claims, List<GrantedAuthority> authorities, long userId, long version) {
+        public String username() {
+            return claims.getSubject();
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+        private final long ttlNanos;
+
+        UntilTokenExpires(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String hash, VerifiedToken token, long currentTime) {
+            // Never negative: a token that expired while it was being verified is simply not kept
+            long untilExpiry = Duration.between(Instant.now(), token.claims().getExpiration().toInstant()).toNanos();
+            return Math.max(Math.min(untilExpiry, ttlNanos), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String hash, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String hash, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
+
+// src/main/java/com/pms/security/UserChangedEvent.java
+package com.pms.security;
+
+// version is the lowest version of the user row still current: the new one after an update,
+// Long.MAX_VALUE once the row is deleted
+public record UserChangedEvent(String username, long userId, long version) {
+}
+
+// src/main/java/com/pms/security/UserChangeListener.java
+package com.pms.security;
+
+import com.pms.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Entity listener on User: cached tokens of a changed user must be verified again. User is
+// versioned, so a change to its roles alone is an update too
+@Component
+@RequiredArgsConstructor
+public class UserChangeListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    public void userUpdated(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), user.getId(), user.getVersion()));
+    }
+
+    @PostRemove
+    public void userRemoved(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), user.getId(), Long.MAX_VALUE));
+    }
+}
+
+// src/main/java/com/pms/security/PasswordHashing.java
+package com.pms.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Runs login and registration, i.e. BCrypt, on a pool of its own: a burst of logins queues here
+// instead of holding every Tomcat thread, and once the queue is full it is turned away with a 503.
+// BCrypt is CPU bound, so the pool defaults to one thread per core
+@Component
+public class PasswordHashing {
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashing(@Value("${security.password-hashing.threads}") int threads,
+                           @Value("${security.password-hashing.queue-capacity}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"));
+    }
+
+    // Throws RejectedExecutionException when the queue is full
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
+
+// src/main/java/com/pms/security/LoginRateLimiter.java
+package com.pms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pms.exception.RateLimitExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Failed logins and registrations per client IP, and failed logins per username from that IP, in
+// fixed windows, checked before any password is hashed. Successful logins are not counted and clear
+// the username's failures. Failures are counted per client, so nobody can lock an account out from
+// another address; one account guessed from many addresses is held back by each address's limit.
+// Registrations and failed logins share the per-IP budget
+@Component
+public class LoginRateLimiter {
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    private final Duration window;
+    private final int perIp;
+    private final int perUsername;
+    private final Cache<String, AtomicInteger> attempts;
+
+    public LoginRateLimiter(@Value("${security.login-rate-limit.window}") Duration window,
+                            @Value("${security.login-rate-limit.per-ip}") int perIp,
+                            @Value("${security.login-rate-limit.per-username}") int perUsername) {
+        this.window = window;
+        this.perIp = perIp;
+        this.perUsername = perUsername;
+        // A counter is written once, when created, so it expires a window after the first attempt
+        this.attempts = Caffeine.newBuilder()
+            .expireAfterWrite(window)
+            .maximumSize(MAX_TRACKED_KEYS)
+            .build();
+    }
+
+    public void checkLogin(String ip, String username) {
+        check(ipKey(ip), perIp);
+        check(usernameKey(ip, username), perUsername);
+    }
+
+    public void loginFailed(String ip, String username) {
+        count(ipKey(ip));
+        count(usernameKey(ip, username));
+    }
+
+    public void loginSucceeded(String ip, String username) {
+        attempts.invalidate(usernameKey(ip, username));
+    }
+
+    public void checkRegister(String ip) {
+        check(ipKey(ip), perIp);
+        count(ipKey(ip));
+    }
+
+    private void check(String key, int limit) {
+        AtomicInteger counter = attempts.getIfPresent(key);
+        if (counter != null && counter.get() >= limit) {
+            throw new RateLimitExceededException("Too many attempts, try again later", window);
+        }
+    }
+
+    private void count(String key) {
+        attempts.get(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+
+    private static String usernameKey(String ip, String username) {
+        return "username:" + String.valueOf(username).toLowerCase(Locale.ROOT) + "@" + ip;
+    }
+}
+
+// src/main/java/com/pms/security/JwtAuthFilter.java
+package com.pms.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@RequiredArgsConstructor
+public class JwtAuthFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            verifiedTokenCache.verify(header.substring(BEARER.length())).ifPresent(token -> {
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(token.username(), null, token.authorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            });
+        }
+        filterChain.doFilter(request, response);
     }
 }
 
@@ -350,17 +930,25 @@ package com.pms.controller;
 
 import com.pms.dto.UserDto;
 import com.pms.security.JwtService;
+import com.pms.security.LoginRateLimiter;
+import com.pms.security.PasswordHashing;
 import com.pms.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
+// Both endpoints hash a password: they run on PasswordHashing's pool, off the servlet thread. The
+// client IP is getRemoteAddr(), which server.forward-headers-strategy resolves behind a proxy
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -368,21 +956,35 @@ public class AuthController {
     private final AuthenticationProvider authenticationProvider;
     private final JwtService jwtService;
     private final UserService userService;
+    private final PasswordHashing passwordHashing;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody UserDto userDto) {
-        userService.createUser(userDto);
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<Void>> register(@RequestBody UserDto userDto, HttpServletRequest request) {
+        loginRateLimiter.checkRegister(request.getRemoteAddr());
+        return passwordHashing.submit(() -> {
+            userService.createUser(userDto);
+            return ResponseEntity.ok().build();
+        });
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody UserDto userDto) {
-        Authentication authentication = authenticationProvider.authenticate(
-            new UsernamePasswordAuthenticationToken(userDto.getUsername(), userDto.getPassword())
-        );
-        
-        String token = jwtService.generateToken(authentication);
-        return ResponseEntity.ok(token);
+    public CompletableFuture<ResponseEntity<String>> login(@RequestBody UserDto userDto, HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        loginRateLimiter.checkLogin(ip, userDto.getUsername());
+        return passwordHashing.submit(() -> {
+            Authentication authentication;
+            try {
+                authentication = authenticationProvider.authenticate(
+                    new UsernamePasswordAuthenticationToken(userDto.getUsername(), userDto.getPassword())
+                );
+            } catch (AuthenticationException e) {
+                loginRateLimiter.loginFailed(ip, userDto.getUsername());
+                throw e;
+            }
+            loginRateLimiter.loginSucceeded(ip, userDto.getUsername());
+            return ResponseEntity.ok(jwtService.generateToken(authentication));
+        });
     }
 }
 
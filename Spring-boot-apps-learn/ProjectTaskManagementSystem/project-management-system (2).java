@@ -1,25 +1,34 @@
 // src/main/java/com/pms/controller/TaskController.java
 package com.pms.controller;
 
+import com.pms.dto.TaskCursor;
 import com.pms.dto.TaskDto;
+import com.pms.dto.TaskSummary;
 import com.pms.model.Task;
 import com.pms.model.TaskStatus;
 import com.pms.service.TaskService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/tasks")
 @RequiredArgsConstructor
 public class TaskController {
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final TaskService taskService;
+    private final TaskPageWriter taskPageWriter;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
@@ -32,29 +41,47 @@ public class TaskController {
         return ResponseEntity.ok(taskService.getTaskById(id));
     }
 
+    // Listings return {"items": [...], "nextCursor": "..."}; pass nextCursor as "after" for the next page
+
     @GetMapping("/project/{projectId}")
-    public ResponseEntity<List<Task>> getTasksByProject(@PathVariable Long projectId) {
-        return ResponseEntity.ok(taskService.getTasksByProject(projectId));
+    public ResponseEntity<StreamingResponseBody> getTasksByProject(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        TaskCursor cursor = TaskCursor.decode(after);
+        return page(size, (limit, consumer) -> taskService.streamTasksByProject(projectId, cursor, limit, consumer));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Task>> getTasksByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(taskService.getTasksByUser(userId));
+    public ResponseEntity<StreamingResponseBody> getTasksByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        TaskCursor cursor = TaskCursor.decode(after);
+        return page(size, (limit, consumer) -> taskService.streamTasksByUser(userId, cursor, limit, consumer));
     }
 
     @GetMapping("/by-date-range")
-    public ResponseEntity<List<Task>> getTasksByDateRange(
+    public ResponseEntity<StreamingResponseBody> getTasksByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        return ResponseEntity.ok(taskService.getTasksByDateRange(start, end));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        TaskCursor cursor = TaskCursor.decode(after);
+        return page(size, (limit, consumer) ->
+            taskService.streamTasksByDateRange(start, end, cursor, limit, consumer));
     }
 
     @GetMapping("/by-status-and-date")
-    public ResponseEntity<List<Task>> getTasksByStatusAndDateRange(
+    public ResponseEntity<StreamingResponseBody> getTasksByStatusAndDateRange(
             @RequestParam TaskStatus status,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        return ResponseEntity.ok(taskService.getTasksByStatusAndDateRange(status, start, end));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        TaskCursor cursor = TaskCursor.decode(after);
+        return page(size, (limit, consumer) ->
+            taskService.streamTasksByStatusAndDateRange(status, start, end, cursor, limit, consumer));
     }
 
     @PutMapping("/{id}")
@@ -69,14 +96,76 @@ public class TaskController {
         taskService.deleteTask(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Queries one row more than the page holds, so the writer knows whether there is a next page
+    private ResponseEntity<StreamingResponseBody> page(int size, PageQuery query) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> query.run(size + 1, tasks -> taskPageWriter.write(tasks, size, out)));
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        void run(int limit, Consumer<Stream<TaskSummary>> consumer);
+    }
+}
+
+// src/main/java/com/pms/controller/TaskPageWriter.java
+package com.pms.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pms.dto.TaskCursor;
+import com.pms.dto.TaskSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes a listing page row by row as it comes off the result set, without collecting it first
+@Component
+@RequiredArgsConstructor
+public class TaskPageWriter {
+    private final ObjectMapper objectMapper;
+
+    public void write(Stream<TaskSummary> tasks, int size, OutputStream out) {
+        try (JsonGenerator json = objectMapper.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+            Iterator<TaskSummary> rows = tasks.iterator();
+            TaskSummary last = null;
+            int written = 0;
+            while (written < size && rows.hasNext()) {
+                last = rows.next();
+                json.writeObject(last);
+                written++;
+            }
+            json.writeEndArray();
+            // A row beyond the page means there is another one
+            json.writeStringField("nextCursor", rows.hasNext() ? TaskCursor.after(last).encode() : null);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
 
 // src/main/java/com/pms/exception/GlobalExceptionHandler.java
 package com.pms.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -84,6 +173,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -100,6 +190,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.UNAUTHORIZED.value(), "Invalid username or password");
+        return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfter().toSeconds()))
+            .body(error);
+    }
+
+    // The password hashing queue is full
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecutionException(RejectedExecutionException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, try again shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(error);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDeniedException(AccessDeniedException ex) {
         ErrorResponse error = new ErrorResponse(HttpStatus.FORBIDDEN.value(), "Access denied");
@@ -131,6 +244,32 @@ public class ErrorResponse {
     private String message;
 }
 
+// src/main/java/com/pms/exception/ResourceNotFoundException.java
+package com.pms.exception;
+
+public class ResourceNotFoundException extends RuntimeException {
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
+
+// src/main/java/com/pms/exception/RateLimitExceededException.java
+package com.pms.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
+
 // src/test/java/com/pms/service/ProjectServiceTest.java
 package com.pms.service;
 
@@ -294,6 +433,7 @@ package com.pms.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pms.dto.ProjectDto;
 import com.pms.model.Project;
+import com.pms.security.VerifiedTokenCache;
 import com.pms.service.ProjectService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -321,6 +461,9 @@ class ProjectControllerTest {
     @MockBean
     private ProjectService projectService;
 
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
     private ProjectDto projectDto;
     private Project project;
 
@@ -347,3 +490,667 @@ class ProjectControllerTest {
                 .andExpect(status().isOk());
     }
 }
+
+// src/test/java/com/pms/controller/TaskControllerTest.java
+package com.pms.controller;
+
+import com.pms.dto.TaskCursor;
+import com.pms.dto.TaskSummary;
+import com.pms.model.TaskStatus;
+import com.pms.security.VerifiedTokenCache;
+import com.pms.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TaskController.class)
+@Import(TaskPageWriter.class)
+class TaskControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TaskService taskService;
+
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private static final LocalDateTime DEADLINE = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private static TaskSummary task(long id) {
+        return new TaskSummary(id, "Task " + id, null, DEADLINE, TaskStatus.NOT_STARTED, 1L, null, DEADLINE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void projectTasks(TaskSummary... tasks) {
+        doAnswer(invocation -> {
+            invocation.getArgument(3, Consumer.class).accept(Stream.of(tasks));
+            return null;
+        }).when(taskService).streamTasksByProject(eq(1L), any(), eq(3), any());
+    }
+
+    @Test
+    @WithMockUser
+    void getTasksByProject_FullPageHasNextCursor() throws Exception {
+        projectTasks(task(1), task(2), task(3));
+
+        MvcResult result = mockMvc.perform(get("/api/tasks/project/1").param("size", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[1].id").value(2))
+                .andExpect(jsonPath("$.items[1].projectId").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(new TaskCursor(DEADLINE, 2L).encode()));
+        verify(taskService).streamTasksByProject(eq(1L), isNull(), eq(3), any());
+    }
+
+    @Test
+    @WithMockUser
+    void getTasksByProject_LastPageHasNoCursor() throws Exception {
+        projectTasks(task(3));
+
+        MvcResult result = mockMvc.perform(get("/api/tasks/project/1")
+                        .param("size", "2")
+                        .param("after", new TaskCursor(DEADLINE, 2L).encode()))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+        verify(taskService).streamTasksByProject(eq(1L), eq(new TaskCursor(DEADLINE, 2L)), eq(3), any());
+    }
+
+    @Test
+    @WithMockUser
+    void getTasksByProject_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/tasks/project/1").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
+
+// src/test/resources/application-test.properties
+spring.datasource.url=jdbc:h2:mem:pms;MODE=PostgreSQL;DB_CLOSE_DELAY=-1
+spring.datasource.username=sa
+spring.datasource.password=
+spring.jpa.hibernate.ddl-auto=create-drop
+spring.jpa.show-sql=false
+spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect
+spring.jpa.properties.hibernate.session_factory.statement_inspector=com.pms.support.StatementCounter
+
+// src/test/java/com/pms/support/StatementCounter.java
+package com.pms.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Records every SQL statement Hibernate prepares, from any thread (streamed listings run on an async one)
+public class StatementCounter implements StatementInspector {
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+}
+
+// src/test/java/com/pms/controller/ListingStatementCountTest.java
+package com.pms.controller;
+
+import com.pms.model.Project;
+import com.pms.model.Role;
+import com.pms.model.Task;
+import com.pms.model.TaskStatus;
+import com.pms.model.User;
+import com.pms.repository.ProjectRepository;
+import com.pms.repository.TaskRepository;
+import com.pms.repository.UserRepository;
+import com.pms.support.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Fails when a listing's statement count grows with the number of rows, i.e. on N+1 loading
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ListingStatementCountTest {
+    private static final int MAX_STATEMENTS = 3;
+    private static final int PROJECTS = 5;
+    private static final int USERS = 4;
+    private static final int TASKS_PER_PROJECT = 20;
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1);
+    private static final LocalDateTime END = START.plusDays(TASKS_PER_PROJECT + 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private Project project;
+    private User user;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        if (projectRepository.count() == 0) {
+            seed();
+        }
+        project = projectRepository.findAll().get(0);
+        user = userRepository.findAll().get(0);
+        task = taskRepository.findAll().get(0);
+    }
+
+    private void seed() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("password");
+            user.getRoles().add(Role.ROLE_USER);
+            users.add(userRepository.save(user));
+        }
+        for (int p = 0; p < PROJECTS; p++) {
+            Project project = new Project();
+            project.setName("Project " + p);
+            project.setDescription("Description " + p);
+            projectRepository.save(project);
+            for (int t = 0; t < TASKS_PER_PROJECT; t++) {
+                Task task = new Task();
+                task.setName("Task " + p + "-" + t);
+                task.setDeadline(START.plusDays(t));
+                task.setProject(project);
+                task.setAssignedTo(users.get(t % USERS));
+                taskRepository.save(task);
+            }
+        }
+    }
+
+    @Test
+    void getAllProjects() throws Exception {
+        assertStatements(get("/api/projects"));
+    }
+
+    @Test
+    void getProject() throws Exception {
+        assertStatements(get("/api/projects/{id}", project.getId()));
+    }
+
+    @Test
+    void getTask() throws Exception {
+        assertStatements(get("/api/tasks/{id}", task.getId()));
+    }
+
+    @Test
+    void getTasksByProject() throws Exception {
+        assertStatements(get("/api/tasks/project/{id}", project.getId()));
+    }
+
+    @Test
+    void getTasksByUser() throws Exception {
+        assertStatements(get("/api/tasks/user/{id}", user.getId()));
+    }
+
+    @Test
+    void getTasksByDateRange() throws Exception {
+        assertStatements(get("/api/tasks/by-date-range")
+                .param("start", START.minusDays(1).toString())
+                .param("end", END.toString()));
+    }
+
+    @Test
+    void getTasksByStatusAndDateRange() throws Exception {
+        assertStatements(get("/api/tasks/by-status-and-date")
+                .param("status", TaskStatus.NOT_STARTED.name())
+                .param("start", START.minusDays(1).toString())
+                .param("end", END.toString()));
+    }
+
+    private void assertStatements(MockHttpServletRequestBuilder request) throws Exception {
+        StatementCounter.reset();
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertEquals(200, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        List<String> statements = StatementCounter.statements();
+        assertTrue(statements.size() <= MAX_STATEMENTS,
+                () -> statements.size() + " statements, at most " + MAX_STATEMENTS + " allowed:\n"
+                        + String.join("\n", statements));
+    }
+}
+
+// src/test/java/com/pms/service/SecondLevelCacheTest.java
+package com.pms.service;
+
+import com.pms.dto.ProjectDto;
+import com.pms.dto.UserDto;
+import com.pms.model.Project;
+import com.pms.model.Role;
+import com.pms.model.User;
+import com.pms.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void getProjectById_SecondReadIsCached() {
+        Long id = projectService.createProject(projectDto("Cached")).getId();
+        projectService.getProjectById(id);
+
+        StatementCounter.reset();
+        Project project = projectService.getProjectById(id);
+
+        assertEquals("Cached", project.getName());
+        assertTrue(StatementCounter.statements().isEmpty(), () -> String.join("\n", StatementCounter.statements()));
+    }
+
+    @Test
+    void getProjectById_AfterUpdate_ReturnsUpdatedProject() {
+        Long id = projectService.createProject(projectDto("Before")).getId();
+        projectService.getProjectById(id);
+
+        projectService.updateProject(id, projectDto("After"));
+
+        assertEquals("After", projectService.getProjectById(id).getName());
+    }
+
+    @Test
+    void getAllProjects_AfterCreate_IncludesNewProject() {
+        int before = projectService.getAllProjects().size();
+
+        projectService.createProject(projectDto("New"));
+
+        assertEquals(before + 1, projectService.getAllProjects().size());
+    }
+
+    @Test
+    void getUserById_SecondReadIsCachedWithRoles() {
+        UserDto userDto = new UserDto();
+        userDto.setUsername("cached");
+        userDto.setEmail("cached@example.com");
+        userDto.setPassword("password");
+        Long id = userService.createUser(userDto).getId();
+        userService.getUserById(id);
+
+        StatementCounter.reset();
+        User user = userService.getUserById(id);
+
+        assertEquals(Set.of(Role.ROLE_USER), user.getRoles());
+        assertTrue(StatementCounter.statements().isEmpty(), () -> String.join("\n", StatementCounter.statements()));
+    }
+
+    private static ProjectDto projectDto(String name) {
+        ProjectDto projectDto = new ProjectDto();
+        projectDto.setName(name);
+        projectDto.setDescription(name + " description");
+        return projectDto;
+    }
+}
+
+// src/test/java/com/pms/security/VerifiedTokenCacheTest.java
+package com.pms.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiedTokenCacheTest {
+    private static final String SECRET = "test-secret-key-long-enough-for-hmac-sha-256";
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    private JwtService jwtService;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, 60_000);
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, userDetailsService, new SimpleMeterRegistry(), 100,
+            Duration.ofMinutes(2));
+        token = jwtService.generateToken(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @Test
+    void verify_ValidToken_LoadsUserOnce() {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user("alice", 0, "ROLE_USER"));
+
+        verifiedTokenCache.verify(token);
+        Optional<VerifiedTokenCache.VerifiedToken> verified = verifiedTokenCache.verify(token);
+
+        assertTrue(verified.isPresent());
+        assertEquals("alice", verified.get().username());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), verified.get().authorities());
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void verify_TamperedToken_ReturnsEmpty() {
+        Optional<VerifiedTokenCache.VerifiedToken> verified = verifiedTokenCache.verify(token + "x");
+
+        assertTrue(verified.isEmpty());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void verify_TokenFromOtherKey_ReturnsEmpty() {
+        String forged = new JwtService(SECRET.toUpperCase(), 60_000)
+            .generateToken(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+
+        assertTrue(verifiedTokenCache.verify(forged).isEmpty());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void verify_DeletedUser_ReturnsEmpty() {
+        when(userDetailsService.loadUserByUsername("alice")).thenThrow(new UsernameNotFoundException("User not found"));
+
+        assertTrue(verifiedTokenCache.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_AfterUserChanged_LoadsUserAgain() {
+        when(userDetailsService.loadUserByUsername("alice"))
+            .thenReturn(user("alice", 0, "ROLE_USER"), user("alice", 1, "ROLE_USER"));
+        verifiedTokenCache.verify(token);
+
+        verifiedTokenCache.onUserChanged(new UserChangedEvent("alice", 1, 1));
+        verifiedTokenCache.verify(token);
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void verify_LoadRacingUserChange_ReturnsNewAuthorities() {
+        // The first read sees the row as it was before the demotion, which commits while it runs
+        when(userDetailsService.loadUserByUsername("alice"))
+            .thenAnswer(invocation -> {
+                verifiedTokenCache.onUserChanged(new UserChangedEvent("alice", 1, 1));
+                return user("alice", 0, "ROLE_ADMIN");
+            })
+            .thenReturn(user("alice", 1, "ROLE_USER"));
+
+        Optional<VerifiedTokenCache.VerifiedToken> verified = verifiedTokenCache.verify(token);
+
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), verified.orElseThrow().authorities());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")),
+            verifiedTokenCache.verify(token).orElseThrow().authorities());
+    }
+
+    @Test
+    void verify_AfterUserDeleted_ReturnsEmpty() {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user("alice", 0, "ROLE_USER"));
+        verifiedTokenCache.verify(token);
+
+        // The read races the delete and still finds the row
+        verifiedTokenCache.onUserChanged(new UserChangedEvent("alice", 1, Long.MAX_VALUE));
+
+        assertTrue(verifiedTokenCache.verify(token).isEmpty());
+    }
+
+    private static UserDetailsServiceImpl.VersionedUser user(String username, long version, String role) {
+        return new UserDetailsServiceImpl.VersionedUser(username, "password",
+            List.of(new SimpleGrantedAuthority(role)), 1, version);
+    }
+}
+
+// src/test/java/com/pms/security/UserChangeEvictionTest.java
+package com.pms.security;
+
+import com.pms.dto.UserDto;
+import com.pms.model.Role;
+import com.pms.repository.UserRepository;
+import com.pms.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserChangeEvictionTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void verify_AfterOnlyRolesChanged_ReturnsNewAuthorities() {
+        UserDto userDto = new UserDto();
+        userDto.setUsername("promoted");
+        userDto.setEmail("promoted@example.com");
+        userDto.setPassword("password");
+        Long id = userService.createUser(userDto).getId();
+        String token = jwtService.generateToken(new UsernamePasswordAuthenticationToken("promoted", null, List.of()));
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")),
+            verifiedTokenCache.verify(token).orElseThrow().authorities());
+
+        // Only the roles collection changes, no column of the users row
+        transactionTemplate.executeWithoutResult(status ->
+            userRepository.findById(id).orElseThrow().getRoles().add(Role.ROLE_ADMIN));
+
+        assertEquals(Set.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")),
+            Set.copyOf(verifiedTokenCache.verify(token).orElseThrow().authorities()));
+    }
+}
+
+// src/test/java/com/pms/security/LoginRateLimiterTest.java
+package com.pms.security;
+
+import com.pms.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginRateLimiterTest {
+    private final LoginRateLimiter loginRateLimiter = new LoginRateLimiter(Duration.ofMinutes(1), 5, 2);
+
+    @Test
+    void checkLogin_OverUsernameFailures_ThrowsForThatClientOnly() {
+        loginRateLimiter.loginFailed("10.0.0.1", "alice");
+        loginRateLimiter.loginFailed("10.0.0.1", "Alice");
+
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+            () -> loginRateLimiter.checkLogin("10.0.0.1", "alice"));
+        assertEquals(Duration.ofMinutes(1), ex.getRetryAfter());
+        assertDoesNotThrow(() -> loginRateLimiter.checkLogin("10.0.0.2", "alice"));
+        assertDoesNotThrow(() -> loginRateLimiter.checkLogin("10.0.0.1", "bob"));
+    }
+
+    @Test
+    void checkLogin_SuccessfulLogins_NeverThrow() {
+        for (int i = 0; i < 10; i++) {
+            loginRateLimiter.checkLogin("10.0.0.1", "alice");
+            loginRateLimiter.loginSucceeded("10.0.0.1", "alice");
+        }
+
+        assertDoesNotThrow(() -> loginRateLimiter.checkLogin("10.0.0.1", "alice"));
+    }
+
+    @Test
+    void loginSucceeded_ClearsUsernameFailures() {
+        loginRateLimiter.loginFailed("10.0.0.1", "alice");
+        loginRateLimiter.loginSucceeded("10.0.0.1", "alice");
+        loginRateLimiter.loginFailed("10.0.0.1", "alice");
+
+        assertDoesNotThrow(() -> loginRateLimiter.checkLogin("10.0.0.1", "alice"));
+    }
+
+    @Test
+    void checkRegister_OverIpLimit_Throws() {
+        for (int i = 0; i < 5; i++) {
+            loginRateLimiter.checkRegister("10.0.0.1");
+        }
+
+        assertThrows(RateLimitExceededException.class, () -> loginRateLimiter.checkRegister("10.0.0.1"));
+        assertThrows(RateLimitExceededException.class, () -> loginRateLimiter.checkLogin("10.0.0.1", "carol"));
+        assertDoesNotThrow(() -> loginRateLimiter.checkRegister("10.0.0.2"));
+    }
+}
+
+// src/test/java/com/pms/security/PasswordEncoderBenchmark.java
+package com.pms.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Time per BCrypt hash by strength, to choose security.bcrypt.strength: a login costs one matches()
+// per core of PasswordHashing's pool, so 1000 / time is the logins per second each core can serve.
+// Run on the production hardware with mvn -Pjmh test-compile exec:exec
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "11", "12", "13"})
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
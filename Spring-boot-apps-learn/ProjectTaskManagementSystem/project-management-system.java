@@ -18,6 +18,7 @@
     <properties>
         <java.version>17</java.version>
         <jjwt.version>0.11.5</jjwt.version>
+        <jmh.version>1.37</jmh.version>
     </properties>
     
     <dependencies>
@@ -37,11 +38,38 @@
             <groupId>org.springframework.boot</groupId>
             <artifactId>spring-boot-starter-validation</artifactId>
         </dependency>
+        <dependency>
+            <groupId>org.springframework.boot</groupId>
+            <artifactId>spring-boot-starter-actuator</artifactId>
+        </dependency>
         <dependency>
             <groupId>org.postgresql</groupId>
             <artifactId>postgresql</artifactId>
             <scope>runtime</scope>
         </dependency>
+        <!-- Second-level cache: Hibernate's JCache regions backed by Caffeine, with hit/miss metrics -->
+        <dependency>
+            <groupId>org.hibernate.orm</groupId>
+            <artifactId>hibernate-jcache</artifactId>
+        </dependency>
+        <dependency>
+            <groupId>com.github.ben-manes.caffeine</groupId>
+            <artifactId>jcache</artifactId>
+        </dependency>
+        <dependency>
+            <groupId>org.hibernate.orm</groupId>
+            <artifactId>hibernate-micrometer</artifactId>
+        </dependency>
+        <!-- Verified-token cache (VerifiedTokenCache) -->
+        <dependency>
+            <groupId>com.github.ben-manes.caffeine</groupId>
+            <artifactId>caffeine</artifactId>
+        </dependency>
+        <dependency>
+            <groupId>com.h2database</groupId>
+            <artifactId>h2</artifactId>
+            <scope>test</scope>
+        </dependency>
         <dependency>
             <groupId>io.jsonwebtoken</groupId>
             <artifactId>jjwt-api</artifactId>
@@ -74,6 +102,19 @@
             <artifactId>spring-security-test</artifactId>
             <scope>test</scope>
         </dependency>
+        <!-- PasswordEncoderBenchmark -->
+        <dependency>
+            <groupId>org.openjdk.jmh</groupId>
+            <artifactId>jmh-core</artifactId>
+            <version>${jmh.version}</version>
+            <scope>test</scope>
+        </dependency>
+        <dependency>
+            <groupId>org.openjdk.jmh</groupId>
+            <artifactId>jmh-generator-annprocess</artifactId>
+            <version>${jmh.version}</version>
+            <scope>test</scope>
+        </dependency>
     </dependencies>
     
     <build>
@@ -92,6 +133,31 @@
             </plugin>
         </plugins>
     </build>
+
+    <profiles>
+        <!-- Password hashing cost: mvn -Pjmh test-compile exec:exec -->
+        <profile>
+            <id>jmh</id>
+            <build>
+                <plugins>
+                    <plugin>
+                        <groupId>org.codehaus.mojo</groupId>
+                        <artifactId>exec-maven-plugin</artifactId>
+                        <configuration>
+                            <executable>java</executable>
+                            <classpathScope>test</classpathScope>
+                            <arguments>
+                                <argument>-classpath</argument>
+                                <classpath/>
+                                <argument>org.openjdk.jmh.Main</argument>
+                                <argument>PasswordEncoderBenchmark</argument>
+                            </arguments>
+                        </configuration>
+                    </plugin>
+                </plugins>
+            </build>
+        </profile>
+    </profiles>
 </project>
 
 // src/main/resources/application.properties
@@ -102,18 +168,90 @@ spring.jpa.hibernate.ddl-auto=update
 spring.jpa.show-sql=true
 spring.jpa.properties.hibernate.format_sql=true
 spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect
+# Lazy associations load in batches (one IN query per batch instead of one query per row),
+# and never while the response is written: listings fetch what they serialize up front
+spring.jpa.properties.hibernate.default_batch_fetch_size=100
+spring.jpa.open-in-view=false
+# Projects, users and their roles are read far more often than written: keep them in a
+# second-level cache (regions and TTLs in application.conf). Updates and deletes through
+# Hibernate evict the cached row; the cache is per instance, so the TTLs bound how stale
+# another instance's copy can get
+spring.jpa.properties.hibernate.cache.use_second_level_cache=true
+spring.jpa.properties.hibernate.cache.use_query_cache=true
+spring.jpa.properties.hibernate.cache.region.factory_class=jcache
+spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider
+spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail
+# Hit/miss counts per region, at /actuator/metrics/hibernate.second.level.cache.requests
+spring.jpa.properties.hibernate.generate_statistics=true
+management.endpoints.web.exposure.include=health,metrics
 
 jwt.secret=your-secret-key-here-make-it-long-and-secure-in-production
 jwt.expiration=86400000
+# Verified tokens kept in memory, each until it expires or for the TTL. Changes to a user evict
+# its tokens on the instance that made them; the TTL bounds how long the others keep them
+jwt.cache.max-size=10000
+jwt.cache.ttl=2m
+
+# BCrypt cost, from PasswordEncoderBenchmark: each step doubles the time per login. Raising it
+# re-hashes each password on its next login
+security.bcrypt.strength=10
+# Login and registration hash on their own pool (0 threads: one per core) and get a 503 past the queue
+security.password-hashing.threads=0
+security.password-hashing.queue-capacity=100
+# Failed logins and registrations per client IP, failed logins per username and client IP
+security.login-rate-limit.window=1m
+security.login-rate-limit.per-ip=30
+security.login-rate-limit.per-username=10
+# Client IPs from X-Forwarded-For when the request comes through a trusted proxy (Tomcat's
+# RemoteIpValve; private and loopback addresses by default, server.tomcat.remoteip.internal-proxies),
+# so clients behind a load balancer do not share one rate-limit bucket
+server.forward-headers-strategy=native
+
+// src/main/resources/application.conf
+# Second-level cache regions, read by Caffeine's JCache provider (see application.properties)
+caffeine.jcache {
+  projects {
+    policy {
+      eager-expiration.after-write = 10m
+      maximum.size = 10000
+    }
+  }
+  users {
+    policy {
+      eager-expiration.after-write = 5m
+      maximum.size = 10000
+    }
+  }
+  user-roles {
+    policy {
+      eager-expiration.after-write = 5m
+      maximum.size = 10000
+    }
+  }
+  default-query-results-region {
+    policy {
+      eager-expiration.after-write = 2m
+      maximum.size = 1000
+    }
+  }
+  # When each table last changed, to invalidate cached query results: must outlive them
+  default-update-timestamps-region {
+  }
+}
 
 // src/main/java/com/pms/model/User.java
 package com.pms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pms.security.UserChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -121,6 +259,9 @@ import java.util.Set;
 @Data
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@EntityListeners(UserChangeListener.class)
 @Table(name = "users")
 public class User {
     @Id
@@ -137,20 +278,33 @@ public class User {
     private String email;
 
     @NotBlank
+    @JsonIgnore
     private String password;
 
     @ElementCollection(fetch = FetchType.EAGER)
     @Enumerated(EnumType.STRING)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
     private Set<Role> roles = new HashSet<>();
+
+    // Bumped by any change, including one to roles alone, so UserChangeListener's @PostUpdate
+    // fires for it too. The default fills the column for rows created before it existed
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
 
 // src/main/java/com/pms/model/Project.java
 package com.pms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -159,6 +313,8 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projects")
 @Table(name = "projects")
 public class Project {
     @Id
@@ -174,6 +330,8 @@ public class Project {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Listed through the paginated /api/tasks/project/{id}, never inline
+    @JsonIgnore
     @OneToMany(mappedBy = "project", cascade = CascadeType.ALL)
     private List<Task> tasks = new ArrayList<>();
 
@@ -198,8 +356,18 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "tasks")
+@NamedEntityGraph(name = Task.WITH_PROJECT_AND_ASSIGNEE, attributeNodes = {
+    @NamedAttributeNode("project"),
+    @NamedAttributeNode(value = "assignedTo", subgraph = "assignee")
+}, subgraphs = @NamedSubgraph(name = "assignee", attributeNodes = @NamedAttributeNode("roles")))
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_project_deadline", columnList = "project_id, deadline, id"),
+    @Index(name = "idx_tasks_assigned_to_deadline", columnList = "assigned_to_id, deadline, id"),
+    @Index(name = "idx_tasks_deadline", columnList = "deadline, id")
+})
 public class Task {
+    public static final String WITH_PROJECT_AND_ASSIGNEE = "Task.withProjectAndAssignee";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
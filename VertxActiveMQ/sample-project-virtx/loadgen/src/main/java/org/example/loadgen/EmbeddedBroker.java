@@ -0,0 +1,67 @@
+package org.example.loadgen;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.example.EmbeddedBrokerTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link EmbeddedBrokerTransport} standing in for the real broker during load
+ * runs, so the outbox drainer talks to it over the same OpenWire transport it
+ * uses in production. A consumer empties the queue and counts what arrived,
+ * which keeps the broker's memory flat and tells the report how many accepted
+ * messages were delivered.
+ */
+public final class EmbeddedBroker implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedBroker.class);
+
+    private final EmbeddedBrokerTransport broker;
+    private final Connection connection;
+    private final AtomicLong delivered = new AtomicLong();
+
+    private EmbeddedBroker(EmbeddedBrokerTransport broker, Connection connection) {
+        this.broker = broker;
+        this.connection = connection;
+    }
+
+    public static EmbeddedBroker start(String queue) throws Exception {
+        EmbeddedBrokerTransport broker = EmbeddedBrokerTransport.start();
+        Connection connection;
+        try {
+            connection = new ActiveMQConnectionFactory(broker.openWireUrl()).createConnection();
+        } catch (JMSException e) {
+            broker.close();
+            throw e;
+        }
+        EmbeddedBroker embedded = new EmbeddedBroker(broker, connection);
+        Session session = connection.createSession(false, Session.DUPS_OK_ACKNOWLEDGE);
+        MessageConsumer consumer = session.createConsumer(session.createQueue(queue));
+        consumer.setMessageListener(message -> embedded.delivered.incrementAndGet());
+        connection.start();
+        return embedded;
+    }
+
+    public String url() {
+        return broker.openWireUrl();
+    }
+
+    public long delivered() {
+        return delivered.get();
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            logger.warn("Failed to close the counting consumer: {}", e.getMessage());
+        }
+        broker.close();
+    }
+}
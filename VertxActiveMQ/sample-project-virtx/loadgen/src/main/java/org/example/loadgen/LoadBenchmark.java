@@ -0,0 +1,216 @@
+package org.example.loadgen;
+
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.JsonObject;
+import org.example.CodecRegistry;
+import org.example.HttpServerProfile;
+import org.example.MainVerticle;
+import org.example.OutboxDrainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Open-model load run against MainVerticle, producing a report that can be
+ * compared from build to build (see {@link LoadReport}).
+ *
+ * MainVerticle runs in its own Vert.x instance with an outbox, and an
+ * {@link OutboxDrainer} ships /message to an {@link EmbeddedBroker}, so the
+ * measured path is the production one up to the broker. The generators run in
+ * a second Vert.x instance in the same JVM; keep the machine otherwise idle.
+ *
+ * Settings (system properties):
+ * <ul>
+ *   <li>{@code load.scenarios}: comma-separated {@code name:rate}, where name is
+ *   {@code status} (GET /status) or {@code message} (POST /message) and rate is
+ *   requests per second; scenarios run one after the other (default
+ *   {@code status:2000,message:500}, which a 1-core build box sustains)</li>
+ *   <li>{@code load.seconds} / {@code load.warmup.seconds}: recorded and
+ *   unrecorded time per scenario</li>
+ *   <li>{@code load.generators}: event loops generating load (default 2),
+ *   {@code load.connections}: connections per generator (default 32)</li>
+ *   <li>{@code load.server.instances}: MainVerticle instances (default one per core)</li>
+ *   <li>{@code http.profile}: the {@link HttpServerProfile} MainVerticle serves
+ *   with (default {@code default}); run once per profile to compare them</li>
+ *   <li>{@code load.report.dir}: where the reports go (default target)</li>
+ *   <li>{@code load.baseline}: a previous load-report.json; when it exists, a
+ *   regression beyond {@code load.tolerance} (throughput, default 0.10) or
+ *   {@code load.latency.tolerance} (p99, default 0.50) exits with status 1</li>
+ * </ul>
+ */
+public final class LoadBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(LoadBenchmark.class);
+    private static final int PORT = 18090;
+    private static final String QUEUE = "loadgen.queue";
+    private static final Buffer MESSAGE_BODY = Buffer.buffer("{\"role\":\"load-test\"}");
+    private static final int MAX_OUTSTANDING_PER_CONNECTION = 64;
+    private static final long DELIVERY_TIMEOUT_MS = 30_000;
+
+    private LoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] scenarios = System.getProperty("load.scenarios", "status:2000,message:500").split(",");
+        long durationMs = Long.getLong("load.seconds", 30) * 1_000;
+        long warmUpMs = Long.getLong("load.warmup.seconds", 10) * 1_000;
+        int generators = Integer.getInteger("load.generators", 2);
+        int connections = Integer.getInteger("load.connections", 32);
+        int instances = Integer.getInteger("load.server.instances", Runtime.getRuntime().availableProcessors());
+        Path reportDir = Path.of(System.getProperty("load.report.dir", "target"));
+        HttpServerProfile profile = HttpServerProfile.select(new JsonObject());
+
+        LoadReport report = new LoadReport(new JsonObject()
+                .put("java", System.getProperty("java.version"))
+                .put("cores", Runtime.getRuntime().availableProcessors())
+                .put("httpProfile", profile.name())
+                .put("serverInstances", instances)
+                .put("generators", generators)
+                .put("connectionsPerGenerator", connections)
+                .put("warmUpSeconds", warmUpMs / 1_000)
+                .put("seconds", durationMs / 1_000));
+
+        Files.createDirectories(reportDir);
+        Path outboxDir = Files.createTempDirectory(reportDir.toAbsolutePath(), "loadgen-outbox");
+        Vertx server = Vertx.vertx(new VertxOptions()
+                .setEventLoopPoolSize(Math.max(instances, VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE))
+                .setPreferNativeTransport(profile.preferNativeTransport()));
+        Vertx client = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(generators));
+        CodecRegistry.install(server);
+        try (EmbeddedBroker broker = EmbeddedBroker.start(QUEUE)) {
+            JsonObject outbox = new JsonObject().put("outboxDir", outboxDir.toString());
+            await(server.deployVerticle(MainVerticle::new, new DeploymentOptions()
+                    .setInstances(instances)
+                    .setConfig(outbox.copy().put("httpPort", PORT))));
+            await(server.deployVerticle(new OutboxDrainer(), new DeploymentOptions()
+                    .setThreadingModel(ThreadingModel.WORKER)
+                    .setConfig(outbox.copy().put("brokerUrl", broker.url()).put("queue", QUEUE))));
+
+            for (String scenario : scenarios) {
+                String[] parts = scenario.trim().split(":");
+                String name = parts[0];
+                double rate = Double.parseDouble(parts[1]);
+                RequestOptions request = request(name);
+                logger.info("Scenario {}: {} {} at {}/s, {} s warm-up, {} s recorded", name,
+                        request.getMethod(), request.getURI(), rate, warmUpMs / 1_000, durationMs / 1_000);
+                OpenLoadGenerator.Result result = run(client, request,
+                        request.getMethod() == HttpMethod.POST ? MESSAGE_BODY : null,
+                        rate, generators, connections, warmUpMs, durationMs);
+                report.addScenario(name, request.getMethod().name(), request.getURI(), rate, result);
+            }
+
+            // Everything /message accepted should reach the broker
+            JsonObject stats = awaitDelivery(server, broker);
+            report.put("deliveredToBroker", broker.delivered());
+            report.put("outboxBacklogBytes", stats.getJsonObject("outbox").getLong("backlogBytes"));
+        } finally {
+            await(client.close());
+            await(server.close());
+            delete(outboxDir);
+        }
+
+        report.write(reportDir);
+        logger.info("Load report ({}):{}{}", reportDir.resolve(LoadReport.TEXT_FILE),
+                System.lineSeparator(), report.text());
+        compareWithBaseline(report);
+    }
+
+    private static RequestOptions request(String scenario) {
+        RequestOptions options = new RequestOptions().setHost("localhost").setPort(PORT);
+        switch (scenario) {
+            case "status":
+                return options.setMethod(HttpMethod.GET).setURI("/status");
+            case "message":
+                return options.setMethod(HttpMethod.POST).setURI("/message")
+                        .putHeader("content-type", "application/json");
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario + " (status or message)");
+        }
+    }
+
+    /**
+     * Splits the rate across {@code generators} generators, each on an event loop
+     * of its own, and merges their results.
+     */
+    private static OpenLoadGenerator.Result run(Vertx vertx, RequestOptions request, Buffer body, double rate,
+                                                int generators, int connections, long warmUpMs,
+                                                long durationMs) throws Exception {
+        List<Future<OpenLoadGenerator.Result>> runs = new ArrayList<>();
+        for (int i = 0; i < generators; i++) {
+            // Each call from this (non Vert.x) thread gets a new context on the next event loop
+            Context context = vertx.getOrCreateContext();
+            Promise<OpenLoadGenerator.Result> promise = Promise.promise();
+            context.runOnContext(v -> new OpenLoadGenerator(vertx, request, body, rate / generators, connections,
+                    connections * MAX_OUTSTANDING_PER_CONNECTION).run(warmUpMs, durationMs).onComplete(promise));
+            runs.add(promise.future());
+        }
+        OpenLoadGenerator.Result merged = new OpenLoadGenerator.Result();
+        for (Future<OpenLoadGenerator.Result> run : runs) {
+            merged.add(await(run));
+        }
+        return merged;
+    }
+
+    private static JsonObject awaitDelivery(Vertx server, EmbeddedBroker broker) throws Exception {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+        while (true) {
+            JsonObject stats = await(server.eventBus().<JsonObject>request("app.outbox.stats", null)).body();
+            long backlog = stats.getJsonObject("outbox").getLong("backlogBytes");
+            if ((backlog == 0 && broker.delivered() >= stats.getLong("shipped"))
+                    || System.currentTimeMillis() > deadline) {
+                return stats;
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private static void compareWithBaseline(LoadReport report) throws Exception {
+        String baselineFile = System.getProperty("load.baseline");
+        JsonObject baseline = null;
+        if (baselineFile != null && Files.exists(Path.of(baselineFile))) {
+            baseline = new JsonObject(Files.readString(Path.of(baselineFile)));
+        } else {
+            logger.info("No baseline to compare with; copy {} to {} to make this run the baseline",
+                    LoadReport.JSON_FILE, baselineFile == null ? "load-baseline.json" : baselineFile);
+        }
+        // Failed requests count as a regression even without a baseline
+        List<String> regressions = report.regressions(baseline,
+                Double.parseDouble(System.getProperty("load.tolerance", "0.10")),
+                Double.parseDouble(System.getProperty("load.latency.tolerance", "0.50")));
+        if (regressions.isEmpty()) {
+            if (baseline != null) {
+                logger.info("No regression against {} ({})", baselineFile, baseline.getString("timestamp"));
+            }
+            return;
+        }
+        regressions.forEach(regression -> logger.error("Regression: {}", regression));
+        System.exit(1);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get();
+    }
+}
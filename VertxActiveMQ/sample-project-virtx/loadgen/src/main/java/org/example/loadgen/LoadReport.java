@@ -0,0 +1,145 @@
+package org.example.loadgen;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of one load run, written as {@code load-report.json} (for tooling
+ * and as the next baseline) and {@code load-report.txt}, and compared against a
+ * baseline report from an earlier build.
+ *
+ * A scenario regresses when its achieved rate drops by more than the throughput
+ * tolerance, its corrected p99 grows by more than the latency tolerance, or more
+ * than 0.1% of its scheduled requests failed or were shed. Only scenarios with
+ * the same name and target rate are compared; runs on different hardware are not
+ * comparable at all.
+ */
+final class LoadReport {
+    static final String JSON_FILE = "load-report.json";
+    static final String TEXT_FILE = "load-report.txt";
+    private static final double MAX_FAILED_FRACTION = 0.001;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final JsonObject json;
+
+    LoadReport(JsonObject environment) {
+        this.json = new JsonObject()
+                .put("timestamp", Instant.now().toString())
+                .put("environment", environment)
+                .put("scenarios", new JsonArray());
+    }
+
+    void addScenario(String name, String method, String path, double targetRate, OpenLoadGenerator.Result result) {
+        double seconds = Math.max(result.elapsedNanos, 1) / 1e9;
+        json.getJsonArray("scenarios").add(new JsonObject()
+                .put("name", name)
+                .put("request", method + " " + path)
+                .put("targetRate", targetRate)
+                .put("achievedRate", Math.round(result.completed / seconds))
+                .put("scheduled", result.scheduled)
+                .put("completed", result.completed)
+                .put("errors", result.errors)
+                .put("shed", result.shed)
+                .put("latencyMicros", percentiles(result.latency))
+                .put("serviceTimeMicros", percentiles(result.serviceTime)));
+    }
+
+    void put(String key, Object value) {
+        json.put(key, value);
+    }
+
+    private static JsonObject percentiles(Histogram histogram) {
+        JsonObject values = new JsonObject();
+        for (double percentile : PERCENTILES) {
+            values.put("p" + (percentile == Math.rint(percentile) ? Integer.toString((int) percentile)
+                    : Double.toString(percentile).replace(".", "")), histogram.getValueAtPercentile(percentile));
+        }
+        return values.put("max", histogram.getMaxValue()).put("mean", Math.round(histogram.getMean()));
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(JSON_FILE), json.encodePrettily(), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve(TEXT_FILE), text(), StandardCharsets.UTF_8);
+    }
+
+    String text() {
+        StringBuilder text = new StringBuilder(String.format("%-10s %-16s %9s %9s %8s %8s %8s %8s %9s %8s %7s%n",
+                "scenario", "request", "target/s", "actual/s", "p50 us", "p90 us", "p99 us", "p99.9 us",
+                "max us", "svc p99", "failed"));
+        for (Object entry : json.getJsonArray("scenarios")) {
+            JsonObject scenario = (JsonObject) entry;
+            JsonObject latency = scenario.getJsonObject("latencyMicros");
+            text.append(String.format("%-10s %-16s %9.0f %9d %8d %8d %8d %8d %9d %8d %7d%n",
+                    scenario.getString("name"), scenario.getString("request"),
+                    scenario.getDouble("targetRate"), scenario.getLong("achievedRate"),
+                    latency.getLong("p50"), latency.getLong("p90"), latency.getLong("p99"),
+                    latency.getLong("p999"), latency.getLong("max"),
+                    scenario.getJsonObject("serviceTimeMicros").getLong("p99"),
+                    scenario.getLong("errors") + scenario.getLong("shed")));
+        }
+        text.append("Latency is measured from each request's scheduled start (coordinated-omission corrected);")
+                .append(System.lineSeparator())
+                .append("svc p99 is measured from the actual send.")
+                .append(System.lineSeparator());
+        for (String key : json.fieldNames()) {
+            if (!key.equals("scenarios")) {
+                text.append(key).append(": ").append(json.getValue(key)).append(System.lineSeparator());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Compares this run with {@code baseline}; returns one line per regression.
+     */
+    List<String> regressions(JsonObject baseline, double throughputTolerance, double latencyTolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (Object entry : json.getJsonArray("scenarios")) {
+            JsonObject scenario = (JsonObject) entry;
+            String name = scenario.getString("name");
+            long failed = scenario.getLong("errors") + scenario.getLong("shed");
+            if (failed > scenario.getLong("scheduled") * MAX_FAILED_FRACTION) {
+                regressions.add(name + ": " + failed + " of " + scenario.getLong("scheduled") + " requests failed");
+            }
+            JsonObject before = find(baseline, name, scenario.getDouble("targetRate"));
+            if (before == null) {
+                continue;
+            }
+            long rate = scenario.getLong("achievedRate");
+            long baseRate = before.getLong("achievedRate");
+            if (rate < baseRate * (1 - throughputTolerance)) {
+                regressions.add(String.format("%s: throughput %d/s, baseline %d/s", name, rate, baseRate));
+            }
+            long p99 = scenario.getJsonObject("latencyMicros").getLong("p99");
+            long baseP99 = before.getJsonObject("latencyMicros").getLong("p99");
+            if (p99 > baseP99 * (1 + latencyTolerance)) {
+                regressions.add(String.format("%s: p99 %d us, baseline %d us", name, p99, baseP99));
+            }
+        }
+        return regressions;
+    }
+
+    private static JsonObject find(JsonObject report, String name, double targetRate) {
+        JsonArray scenarios = report == null ? null : report.getJsonArray("scenarios");
+        if (scenarios == null) {
+            return null;
+        }
+        for (Object entry : scenarios) {
+            JsonObject scenario = (JsonObject) entry;
+            if (name.equals(scenario.getString("name")) && scenario.getDouble("targetRate") == targetRate) {
+                return scenario;
+            }
+        }
+        return null;
+    }
+}
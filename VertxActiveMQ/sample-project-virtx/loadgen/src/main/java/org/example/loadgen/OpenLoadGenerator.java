@@ -0,0 +1,160 @@
+package org.example.loadgen;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.RequestOptions;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open-model load: requests are issued on a fixed schedule whether or not
+ * earlier ones have completed, the way independent users arrive.
+ *
+ * Each request has an intended start time ({@code start + n * interval}) and its
+ * latency is recorded from that time, not from when it was actually sent. A
+ * stalled server or a full connection pool therefore shows up as latency of
+ * every request that should have gone out meanwhile, instead of silently
+ * lowering the request rate (coordinated omission). The service time from the
+ * actual send is recorded alongside for comparison.
+ *
+ * One generator runs on one event loop; all state is confined to that context.
+ * Requests due in the warm-up are sent but not recorded.
+ */
+final class OpenLoadGenerator {
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Vertx vertx;
+    private final HttpClient client;
+    private final RequestOptions request;
+    private final Buffer body;
+    private final long intervalNanos;
+    private final int maxOutstanding;
+    private final Promise<Result> promise = Promise.promise();
+
+    private final Result result = new Result();
+    private long recordFrom;
+    private long end;
+    private long next;
+    private long timerId;
+    private boolean issuing;
+    private int outstanding;
+
+    /**
+     * @param body the request body, or {@code null} to send none
+     */
+    OpenLoadGenerator(Vertx vertx, RequestOptions request, Buffer body, double ratePerSecond, int connections,
+                      int maxOutstanding) {
+        this.vertx = vertx;
+        this.client = vertx.createHttpClient(new HttpClientOptions()
+                .setMaxPoolSize(connections)
+                .setKeepAlive(true)
+                .setTcpNoDelay(true));
+        this.request = request;
+        this.body = body;
+        this.intervalNanos = Math.max((long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond), 1);
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * Must be called on the generator's context.
+     */
+    Future<Result> run(long warmUpMs, long durationMs) {
+        long start = System.nanoTime();
+        recordFrom = start + TimeUnit.MILLISECONDS.toNanos(warmUpMs);
+        end = recordFrom + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        next = start;
+        issuing = true;
+        // Timers fire at millisecond granularity: each tick sends everything that has come due
+        timerId = vertx.setPeriodic(1, id -> tick());
+        return promise.future();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        while (next <= now && next < end) {
+            issue(next);
+            next += intervalNanos;
+        }
+        if (next >= end) {
+            vertx.cancelTimer(timerId);
+            issuing = false;
+            finishIfDone();
+        }
+    }
+
+    private void issue(long intended) {
+        boolean recorded = intended >= recordFrom;
+        if (recorded) {
+            result.scheduled++;
+        }
+        if (outstanding >= maxOutstanding) {
+            // Memory guard for a server that has stopped answering; reported as shed
+            if (recorded) {
+                result.shed++;
+            }
+            return;
+        }
+        outstanding++;
+        long sent = System.nanoTime();
+        client.request(request)
+                .compose(req -> body == null ? req.send() : req.send(body))
+                .compose(response -> response.statusCode() / 100 == 2
+                        ? response.body()
+                        : Future.failedFuture("HTTP " + response.statusCode()))
+                .onComplete(ar -> {
+                    outstanding--;
+                    if (recorded) {
+                        long now = System.nanoTime();
+                        if (ar.succeeded()) {
+                            result.completed++;
+                            record(result.latency, now - intended);
+                            record(result.serviceTime, now - sent);
+                        } else {
+                            result.errors++;
+                        }
+                    }
+                    finishIfDone();
+                });
+    }
+
+    private static void record(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.min(Math.max(nanos / 1_000, 0), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    private void finishIfDone() {
+        if (!issuing && outstanding == 0 && !promise.future().isComplete()) {
+            client.close();
+            result.elapsedNanos = System.nanoTime() - recordFrom;
+            promise.complete(result);
+        }
+    }
+
+    /**
+     * Counts and histograms (microseconds) of the recorded window.
+     */
+    static final class Result {
+        final Histogram latency = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        final Histogram serviceTime = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        long scheduled;
+        long completed;
+        long errors;
+        long shed;
+        long elapsedNanos;
+
+        void add(Result other) {
+            latency.add(other.latency);
+            serviceTime.add(other.serviceTime);
+            scheduled += other.scheduled;
+            completed += other.completed;
+            errors += other.errors;
+            shed += other.shed;
+            elapsedNanos = Math.max(elapsedNanos, other.elapsedNanos);
+        }
+    }
+}
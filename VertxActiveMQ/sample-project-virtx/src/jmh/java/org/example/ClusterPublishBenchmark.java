@@ -0,0 +1,154 @@
+package org.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures cross-node latency and publish throughput on "message.queue".
+ *
+ * Built with the jmh profile. Start one or more {@link MessageQueueConsumer}
+ * nodes first, then run {@code mvn -Pjmh package} and
+ * {@code java -cp target/vertx-sample-1.0-SNAPSHOT.jar org.example.ClusterPublishBenchmark [messages] [pings]}.
+ * Latency is the round trip of a ping to one consumer (no clock comparison
+ * between JVMs); throughput is counted by every consumer from its first to
+ * its last received message.
+ */
+public class ClusterPublishBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterPublishBenchmark.class);
+    private static final int BURST_SIZE = 1_000;
+    private static final long REPORT_TIMEOUT_MS = 30_000;
+
+    public static void main(String[] args) {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int pings = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        ClusterSupport.clusteredVertx(new VertxOptions())
+                .onSuccess(CodecRegistry::install)
+                // Run every phase on one event-loop context
+                .onSuccess(vertx -> vertx.runOnContext(v -> waitForConsumer(vertx)
+                        .compose(ready -> measureLatency(vertx, pings))
+                        .compose(latency -> measureThroughput(vertx, messages))
+                        .onFailure(err -> logger.error("Benchmark failed", err))
+                        .eventually(() -> vertx.close())))
+                .onFailure(err -> logger.error("Failed to join the cluster", err));
+    }
+
+    private static Future<Void> waitForConsumer(Vertx vertx) {
+        Promise<Void> ready = Promise.promise();
+        long deadline = System.currentTimeMillis() + REPORT_TIMEOUT_MS;
+        vertx.setPeriodic(500, id -> vertx.eventBus().request(MessageQueueConsumer.PING_ADDRESS, 0L)
+                .onSuccess(reply -> {
+                    vertx.cancelTimer(id);
+                    ready.tryComplete();
+                })
+                .onFailure(err -> {
+                    if (System.currentTimeMillis() > deadline) {
+                        vertx.cancelTimer(id);
+                        ready.tryFail("No MessageQueueConsumer joined the cluster");
+                    }
+                }));
+        return ready.future();
+    }
+
+    private static Future<Void> measureLatency(Vertx vertx, int pings) {
+        long[] roundTrips = new long[pings];
+        Promise<Void> done = Promise.promise();
+        ping(vertx, roundTrips, 0, done);
+        return done.future().onSuccess(v -> {
+            Arrays.sort(roundTrips);
+            logger.info("Round trip over {} pings (us): p50={} p90={} p99={} max={}", pings,
+                    percentile(roundTrips, 50), percentile(roundTrips, 90),
+                    percentile(roundTrips, 99), roundTrips[pings - 1] / 1_000);
+        });
+    }
+
+    private static void ping(Vertx vertx, long[] roundTrips, int index, Promise<Void> done) {
+        if (index == roundTrips.length) {
+            done.complete();
+            return;
+        }
+        long start = System.nanoTime();
+        vertx.eventBus().request(MessageQueueConsumer.PING_ADDRESS, start)
+                .onSuccess(reply -> {
+                    roundTrips[index] = System.nanoTime() - start;
+                    ping(vertx, roundTrips, index + 1, done);
+                })
+                .onFailure(done::fail);
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000;
+    }
+
+    private static Future<Void> measureThroughput(Vertx vertx, int messages) {
+        vertx.eventBus().publish(MessageQueueConsumer.STATS_ADDRESS, "reset");
+
+        Promise<Void> published = Promise.promise();
+        long start = System.currentTimeMillis();
+        publishBurst(vertx, 0, messages, published);
+
+        return published.future()
+                .compose(v -> {
+                    long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+                    logger.info("Published {} messages in {} ms ({} msg/s)", messages, elapsed,
+                            messages * 1000L / elapsed);
+                    return collectReports(vertx, messages);
+                })
+                .onSuccess(reports -> reports.values().forEach(report -> {
+                    long span = Math.max(report.getLong("lastReceivedAt") - report.getLong("firstReceivedAt"), 1);
+                    logger.info("Node {} received {} messages at {} msg/s, average one-way latency {} ms",
+                            report.getString("node"), report.getLong("received"),
+                            report.getLong("received") * 1000L / span,
+                            String.format("%.2f", report.getDouble("averageLatencyMs")));
+                }))
+                .mapEmpty();
+    }
+
+    private static void publishBurst(Vertx vertx, int sent, int total, Promise<Void> done) {
+        int end = Math.min(sent + BURST_SIZE, total);
+        NodeSequence sequence = NodeSequence.of(vertx);
+        for (int i = sent; i < end; i++) {
+            vertx.eventBus().publish(MessageQueueConsumer.EVENT_ADDRESS,
+                    new QueuedMessage("bench", sequence.nodeId(), sequence.next(), System.currentTimeMillis()));
+        }
+        if (end == total) {
+            done.complete();
+        } else {
+            // Yield between bursts so the cluster connections get flushed
+            vertx.runOnContext(v -> publishBurst(vertx, end, total, done));
+        }
+    }
+
+    /**
+     * Polls every consumer until all of them have seen {@code expected} messages or the timeout expires.
+     */
+    private static Future<Map<String, JsonObject>> collectReports(Vertx vertx, int expected) {
+        Map<String, JsonObject> reports = new HashMap<>();
+        Promise<Map<String, JsonObject>> done = Promise.promise();
+        vertx.eventBus().<JsonObject>consumer(MessageQueueConsumer.REPORTS_ADDRESS,
+                message -> reports.put(message.body().getString("node"), message.body()));
+
+        long deadline = System.currentTimeMillis() + REPORT_TIMEOUT_MS;
+        vertx.setPeriodic(500, id -> {
+            boolean complete = !reports.isEmpty() && reports.values().stream()
+                    .allMatch(report -> report.getLong("received") >= expected);
+            if (complete || System.currentTimeMillis() > deadline) {
+                vertx.cancelTimer(id);
+                done.complete(reports);
+            } else {
+                vertx.eventBus().publish(MessageQueueConsumer.STATS_ADDRESS, "report");
+            }
+        });
+        return done.future();
+    }
+}
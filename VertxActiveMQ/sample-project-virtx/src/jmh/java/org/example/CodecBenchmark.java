@@ -0,0 +1,95 @@
+package org.example;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.impl.codecs.JsonObjectMessageCodec;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JsonObject bodies previously sent on "app.messages" with
+ * {@link BridgeMessage} and its binary codec: wire encode and decode (clustered
+ * delivery) and the local transform (deep copy vs shared instance).
+ *
+ * Run with: mvn -Pjmh package && java -jar target/vertx-sample-1.0-SNAPSHOT.jar Codec -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int textLength;
+
+    private final JsonObjectMessageCodec jsonCodec = new JsonObjectMessageCodec();
+    private final BridgeMessageCodec bridgeCodec = new BridgeMessageCodec();
+
+    private JsonObject json;
+    private BridgeMessage message;
+    private Buffer jsonWire;
+    private Buffer bridgeWire;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder(textLength);
+        while (text.length() < textLength) {
+            text.append((char) ('a' + text.length() % 26));
+        }
+        long timestamp = System.currentTimeMillis();
+        json = new JsonObject().put("message", text.toString()).put("timestamp", timestamp);
+        message = new BridgeMessage(text.toString(), timestamp);
+
+        jsonWire = Buffer.buffer();
+        jsonCodec.encodeToWire(jsonWire, json);
+        bridgeWire = Buffer.buffer();
+        bridgeCodec.encodeToWire(bridgeWire, message);
+    }
+
+    @Benchmark
+    public Buffer jsonEncode() {
+        Buffer buffer = Buffer.buffer();
+        jsonCodec.encodeToWire(buffer, json);
+        return buffer;
+    }
+
+    @Benchmark
+    public Buffer binaryEncode() {
+        Buffer buffer = Buffer.buffer();
+        bridgeCodec.encodeToWire(buffer, message);
+        return buffer;
+    }
+
+    @Benchmark
+    public JsonObject jsonDecode() {
+        return jsonCodec.decodeFromWire(0, jsonWire);
+    }
+
+    @Benchmark
+    public BridgeMessage binaryDecode() {
+        return bridgeCodec.decodeFromWire(0, bridgeWire);
+    }
+
+    @Benchmark
+    public JsonObject jsonLocalTransform() {
+        return jsonCodec.transform(json);
+    }
+
+    @Benchmark
+    public BridgeMessage binaryLocalTransform() {
+        return bridgeCodec.transform(message);
+    }
+}
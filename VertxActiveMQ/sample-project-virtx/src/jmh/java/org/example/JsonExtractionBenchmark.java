@@ -0,0 +1,83 @@
+package org.example;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old /message path (full JsonObject decode plus string
+ * concatenation) with JsonFieldExtractor and ResponseTemplates.
+ *
+ * Run with: mvn -Pjmh package && java -jar target/vertx-sample-1.0-SNAPSHOT.jar JsonExtraction -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonExtractionBenchmark {
+
+    @Param({"100", "1024", "10240", "102400", "1048576"})
+    public int payloadSize;
+
+    // Where "role" sits in the document: the extractor can stop early only when it comes first
+    @Param({"first", "last"})
+    public String rolePosition;
+
+    private Buffer body;
+
+    @Setup
+    public void setUp() {
+        body = Buffer.buffer(payload(payloadSize, "first".equals(rolePosition)));
+    }
+
+    @Benchmark
+    public Buffer jsonObject() {
+        String message = new JsonObject(body).getString("role");
+        return Buffer.buffer("{\"status\":\"Message sent: " + message + "\"}");
+    }
+
+    @Benchmark
+    public Buffer streamingExtractor() {
+        String message = JsonFieldExtractor.extract(body, "role");
+        return ResponseTemplates.messageSent(message);
+    }
+
+    /**
+     * An object with "role" and an "items" array of small records, padded until
+     * it is about {@code size} bytes long.
+     */
+    static String payload(int size, boolean roleFirst) {
+        StringBuilder json = new StringBuilder(size + 64).append('{');
+        if (roleFirst) {
+            json.append("\"role\":\"admin\",");
+        }
+        json.append("\"items\":[");
+        int item = 0;
+        while (json.length() < size - 48) {
+            json.append("{\"id\":").append(item).append(",\"name\":\"item-").append(item).append("\"},");
+            item++;
+        }
+        if (item > 0) {
+            json.setLength(json.length() - 1);
+        }
+        json.append(']');
+        if (!roleFirst) {
+            json.append(",\"role\":\"admin\"");
+        }
+        return json.append('}').toString();
+    }
+}
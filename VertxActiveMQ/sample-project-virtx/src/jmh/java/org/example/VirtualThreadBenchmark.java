@@ -0,0 +1,93 @@
+package org.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Issues N concurrent blocking calls (a sleep standing in for a JDBC query or a
+ * JMS receive) and reports how long they take to complete on:
+ * <ul>
+ *   <li>{@code worker}: {@code executeBlocking} on the default worker pool</li>
+ *   <li>{@code virtual}: {@link VirtualThreadExecutor}</li>
+ *   <li>{@code virtual-pinned}: the same, but blocking inside a {@code synchronized}
+ *   block, which pins the carrier and is reported by {@link VirtualThreadMetrics}</li>
+ * </ul>
+ *
+ * Built with the jmh profile: run {@code mvn -Pjmh package}, then
+ * {@code java -cp target/vertx-sample-1.0-SNAPSHOT.jar org.example.VirtualThreadBenchmark [concurrency,...] [blockMs]}.
+ * With the default 20 worker threads, the worker mode needs about
+ * {@code N / 20 * blockMs}, while the virtual mode stays close to {@code blockMs}
+ * until the scheduler or memory become the limit.
+ */
+public class VirtualThreadBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadBenchmark.class);
+    private static final String[] MODES = {"worker", "virtual", "virtual-pinned"};
+
+    public static void main(String[] args) {
+        String[] levels = (args.length > 0 ? args[0] : "100,1000,10000").split(",");
+        long blockMs = args.length > 1 ? Long.parseLong(args[1]) : 20;
+
+        VirtualThreadMetrics metrics = VirtualThreadMetrics.start();
+        Vertx vertx = Vertx.vertx(new VertxOptions());
+        logger.info("Worker pool size {}, {} cores, {} ms per call",
+                VertxOptions.DEFAULT_WORKER_POOL_SIZE, Runtime.getRuntime().availableProcessors(), blockMs);
+
+        vertx.runOnContext(v -> {
+            Future<Void> run = Future.succeededFuture();
+            for (String level : levels) {
+                int concurrency = Integer.parseInt(level.trim());
+                for (String mode : MODES) {
+                    run = run.compose(done -> measure(vertx, mode, concurrency, blockMs));
+                }
+            }
+            run.onSuccess(done -> logger.info("Pinning: {}", metrics.snapshot().encode()))
+                    .onFailure(err -> logger.error("Benchmark failed", err))
+                    .eventually(() -> vertx.close())
+                    .onComplete(done -> metrics.close());
+        });
+    }
+
+    private static Future<Void> measure(Vertx vertx, String mode, int concurrency, long blockMs) {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Callable<Void> call = () -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if ("virtual-pinned".equals(mode)) {
+                    // A monitor per thread, so only pinning (not contention) limits concurrency
+                    synchronized (Thread.currentThread()) {
+                        Thread.sleep(blockMs);
+                    }
+                } else {
+                    Thread.sleep(blockMs);
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+            return null;
+        };
+
+        long start = System.nanoTime();
+        List<Future<Void>> calls = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            calls.add("worker".equals(mode)
+                    ? vertx.executeBlocking(call, false)
+                    : VirtualThreadExecutor.execute(vertx, call));
+        }
+        return Future.all(calls)
+                .andThen(ar -> {
+                    long elapsedMs = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+                    logger.info("{} x {}: {} ms, {} calls/s, peak concurrency {}", mode, concurrency, elapsedMs,
+                            concurrency * 1000L / elapsedMs, peak.get());
+                })
+                .mapEmpty();
+    }
+}
@@ -0,0 +1,182 @@
+package org.example;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.PlatformHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limits for the expensive MainVerticle routes.
+ *
+ * Each limited route admits at most {@code limit} concurrent requests; the rest
+ * are answered at once with 503 and {@code Retry-After}, before their body is
+ * read, so overload costs neither heap nor event-loop time. The limit follows
+ * the route's latency, Vegas/gradient style: the lowest latency seen over the
+ * last two windows of samples is the no-load baseline (so it only moves up if
+ * a whole window was slower), and while recent latency stays within
+ * {@code tolerance} times that baseline the limit grows by about its square root
+ * per sample. Above it, the limit shrinks in proportion (to at most half), so
+ * queueing shows up as a smaller limit instead of a growing p99. Samples taken
+ * while the route is using less than half its limit say nothing about capacity
+ * and are skipped.
+ *
+ * Requests that wait in the event loop's queue before they reach the router are
+ * invisible to that latency, so the event loop's own lag is probed as well:
+ * while it is above {@code maxLagMs}, limited routes are shed outright and the
+ * loop is left to the rest.
+ *
+ * One instance per verticle instance: all state is confined to that instance's
+ * event loop, so limits are per event loop and need no synchronization. Routes
+ * without a limiter (status, readiness, metrics) are never shed, which gives
+ * them priority under overload. Settings come from the {@code admission} config
+ * object; -Dadmission.enabled=false or ADMISSION_ENABLED=false turns it off.
+ */
+public final class AdmissionControl {
+    private static final String ENABLED_PROPERTY = "admission.enabled";
+    private static final String ENABLED_ENV = "ADMISSION_ENABLED";
+
+    // Overridable through the admission config object
+    private static final int DEFAULT_INITIAL_LIMIT = 64;
+    private static final int DEFAULT_MIN_LIMIT = 8;
+    private static final int DEFAULT_MAX_LIMIT = 2048;
+    private static final double DEFAULT_TOLERANCE = 3.0;
+    private static final double DEFAULT_SMOOTHING = 0.2;
+    private static final long DEFAULT_MAX_LAG_MS = 50;
+    private static final int DEFAULT_RETRY_AFTER_SECONDS = 1;
+
+    // Samples averaged by the recent latency, and samples per baseline window
+    private static final int RECENT_WINDOW = 10;
+    private static final int BASELINE_WINDOW = 2_000;
+    private static final long LAG_PROBE_MS = 10;
+
+    private static final AtomicInteger INSTANCE_IDS = new AtomicInteger();
+
+    private final boolean enabled;
+    private final JsonObject config;
+    private final String retryAfter;
+    private final long maxLagNanos;
+    private final String instance = Integer.toString(INSTANCE_IDS.getAndIncrement());
+    private final Map<String, Limiter> limiters = new LinkedHashMap<>();
+    private long lagNanos;
+
+    /**
+     * Call from the verticle's context: the lag probe runs on its event loop.
+     */
+    public AdmissionControl(Vertx vertx, JsonObject config) {
+        String enabled = System.getProperty(ENABLED_PROPERTY, System.getenv(ENABLED_ENV));
+        this.enabled = config.getBoolean("enabled", enabled == null || Boolean.parseBoolean(enabled));
+        this.config = config;
+        this.retryAfter = Integer.toString(config.getInteger("retryAfterSeconds", DEFAULT_RETRY_AFTER_SECONDS));
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(config.getLong("maxLagMs", DEFAULT_MAX_LAG_MS));
+        if (this.enabled) {
+            long[] due = {System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LAG_PROBE_MS)};
+            vertx.setPeriodic(LAG_PROBE_MS, id -> {
+                long now = System.nanoTime();
+                lagNanos = Math.max(now - due[0], 0);
+                due[0] = now + TimeUnit.MILLISECONDS.toNanos(LAG_PROBE_MS);
+            });
+        }
+    }
+
+    /**
+     * A handler limiting concurrency on {@code route}; put it on the route ahead
+     * of its body handler. It is a platform handler because Vert.x Web only lets
+     * those run before the body handler.
+     */
+    public PlatformHandler limit(String route) {
+        if (!enabled) {
+            return RoutingContext::next;
+        }
+        Limiter limiter = limiters.computeIfAbsent(route, Limiter::new);
+        return limiter::handle;
+    }
+
+    public JsonObject stats() {
+        JsonObject stats = new JsonObject();
+        limiters.forEach((route, limiter) -> stats.put(route, new JsonObject()
+                .put("limit", (int) limiter.limit)
+                .put("inFlight", limiter.inFlight)
+                .put("admitted", limiter.admitted)
+                .put("rejected", limiter.rejected)
+                .put("baselineMicros", (long) (limiter.baselineRtt() / 1_000))
+                .put("recentMicros", (long) (limiter.recentRtt / 1_000))));
+        return stats.put("eventLoopLagMicros", lagNanos / 1_000);
+    }
+
+    private final class Limiter {
+        private final int minLimit = config.getInteger("minLimit", DEFAULT_MIN_LIMIT);
+        private final int maxLimit = config.getInteger("maxLimit", DEFAULT_MAX_LIMIT);
+        private final double tolerance = config.getDouble("tolerance", DEFAULT_TOLERANCE);
+        private final double smoothing = config.getDouble("smoothing", DEFAULT_SMOOTHING);
+
+        private double limit = config.getInteger("initialLimit", DEFAULT_INITIAL_LIMIT);
+        private double recentRtt;
+        private double windowMin = Double.MAX_VALUE;
+        private double previousWindowMin = Double.MAX_VALUE;
+        private int samples;
+        private int inFlight;
+        private long admitted;
+        private long rejected;
+
+        Limiter(String route) {
+            MeterRegistry registry = MetricsSupport.registry();
+            if (registry != null) {
+                Tags tags = Tags.of("route", route, "instance", instance);
+                Gauge.builder("http.admission.limit", this, l -> l.limit).tags(tags).register(registry);
+                Gauge.builder("http.admission.inflight", this, l -> l.inFlight).tags(tags).register(registry);
+                FunctionCounter.builder("http.admission.rejected", this, l -> l.rejected).tags(tags).register(registry);
+            }
+        }
+
+        void handle(RoutingContext ctx) {
+            if (inFlight >= (int) limit || lagNanos > maxLagNanos) {
+                rejected++;
+                ResponseTemplates.endJson(ctx.response()
+                        .setStatusCode(503)
+                        .putHeader(HttpHeaders.RETRY_AFTER, retryAfter), ResponseTemplates.OVERLOADED);
+                return;
+            }
+            admitted++;
+            int admittedAt = ++inFlight;
+            long start = System.nanoTime();
+            ctx.addEndHandler(ar -> {
+                inFlight--;
+                // Errors and dropped connections say nothing about queueing
+                if (ar.succeeded() && ctx.response().getStatusCode() < 500) {
+                    sample(System.nanoTime() - start, admittedAt);
+                }
+            });
+            ctx.next();
+        }
+
+        private void sample(long rtt, int inFlightAtStart) {
+            recentRtt = recentRtt == 0 ? rtt : recentRtt + (rtt - recentRtt) / RECENT_WINDOW;
+            windowMin = Math.min(windowMin, recentRtt);
+            if (++samples % BASELINE_WINDOW == 0) {
+                previousWindowMin = windowMin;
+                windowMin = Double.MAX_VALUE;
+            }
+            if (inFlightAtStart < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRtt() / recentRtt));
+            double target = limit * gradient + Math.sqrt(limit);
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + target * smoothing));
+        }
+
+        private double baselineRtt() {
+            double baseline = Math.min(windowMin, previousWindowMin);
+            return baseline == Double.MAX_VALUE ? 0 : baseline;
+        }
+    }
+}
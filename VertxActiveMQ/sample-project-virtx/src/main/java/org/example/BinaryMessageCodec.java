@@ -0,0 +1,97 @@
+package org.example;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base class for the compact binary codecs of immutable message records.
+ *
+ * Local deliveries hand the same instance to every consumer ({@link #transform}
+ * is the identity), so only clustered deliveries pay for encoding. Subclasses
+ * write their fields in a fixed order and read them back through a {@link Reader}.
+ */
+public abstract class BinaryMessageCodec<T> implements MessageCodec<T, T> {
+    private final String name;
+
+    protected BinaryMessageCodec(String name) {
+        this.name = name;
+    }
+
+    protected abstract void write(Buffer buffer, T message);
+
+    protected abstract T read(Reader reader);
+
+    @Override
+    public final void encodeToWire(Buffer buffer, T message) {
+        write(buffer, message);
+    }
+
+    @Override
+    public final T decodeFromWire(int pos, Buffer buffer) {
+        return read(new Reader(buffer, pos));
+    }
+
+    @Override
+    public final T transform(T message) {
+        return message;
+    }
+
+    @Override
+    public final String name() {
+        return name;
+    }
+
+    @Override
+    public final byte systemCodecID() {
+        return -1;
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string; a length of -1 stands for null.
+     */
+    protected static void writeString(Buffer buffer, String value) {
+        if (value == null) {
+            buffer.appendInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.appendInt(bytes.length).appendBytes(bytes);
+    }
+
+    /**
+     * Sequential reader over an encoded record.
+     */
+    protected static final class Reader {
+        private final Buffer buffer;
+        private int pos;
+
+        Reader(Buffer buffer, int pos) {
+            this.buffer = buffer;
+            this.pos = pos;
+        }
+
+        public int readInt() {
+            int value = buffer.getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        public long readLong() {
+            long value = buffer.getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        public String readString() {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            String value = buffer.getString(pos, pos + length, StandardCharsets.UTF_8.name());
+            pos += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example;
+
+/**
+ * Typed body of the messages sent to "app.messages" for forwarding to ActiveMQ.
+ *
+ * Immutable, so local deliveries share one instance (see {@link BridgeMessageCodec}).
+ */
+public final class BridgeMessage {
+    private final String text;
+    private final long timestamp;
+
+    public BridgeMessage(String text, long timestamp) {
+        this.text = text;
+        this.timestamp = timestamp;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Epoch milliseconds at which the message was created.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "BridgeMessage{text=" + text + ", timestamp=" + timestamp + "}";
+    }
+}
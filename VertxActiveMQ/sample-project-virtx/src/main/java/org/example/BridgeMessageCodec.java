@@ -0,0 +1,27 @@
+package org.example;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Binary codec for {@link BridgeMessage}.
+ *
+ * Wire layout: text (length-prefixed UTF-8), timestamp (long).
+ */
+public class BridgeMessageCodec extends BinaryMessageCodec<BridgeMessage> {
+    public static final String NAME = "bridge-message";
+
+    public BridgeMessageCodec() {
+        super(NAME);
+    }
+
+    @Override
+    protected void write(Buffer buffer, BridgeMessage message) {
+        writeString(buffer, message.getText());
+        buffer.appendLong(message.getTimestamp());
+    }
+
+    @Override
+    protected BridgeMessage read(Reader reader) {
+        return new BridgeMessage(reader.readString(), reader.readLong());
+    }
+}
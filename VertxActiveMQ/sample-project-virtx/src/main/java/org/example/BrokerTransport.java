@@ -0,0 +1,71 @@
+package org.example;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The ActiveMQ broker the bridge, the JMS consumers and the outbox drainer talk to.
+ *
+ * Two implementations, selected with -Dbroker.mode or BROKER_MODE:
+ * <ul>
+ *   <li>{@code remote} (default): a real ActiveMQ, see {@link RemoteBrokerTransport}
+ *   for its settings</li>
+ *   <li>{@code embedded}: an in-JVM, in-memory ActiveMQ started on free loopback
+ *   ports, see {@link EmbeddedBrokerTransport}. Nothing needs to be installed, so
+ *   tests and benchmarks run end to end on one box</li>
+ * </ul>
+ * Either way the verticles connect over AMQP and OpenWire exactly as in
+ * production; only the addresses differ. They get them through {@link #config()},
+ * merged into their deployment config.
+ */
+public interface BrokerTransport extends AutoCloseable {
+    String MODE_PROPERTY = "broker.mode";
+    String MODE_ENV = "BROKER_MODE";
+
+    String amqpHost();
+
+    int amqpPort();
+
+    String username();
+
+    String password();
+
+    /**
+     * The OpenWire URL for ActiveMQConnectionFactory.
+     */
+    String openWireUrl();
+
+    /**
+     * The connection settings under the keys the bridge ({@code amqpHost},
+     * {@code amqpPort}) and the JMS consumer and outbox drainer ({@code brokerUrl})
+     * read; all three log in with {@code username} and {@code password}.
+     */
+    default JsonObject config() {
+        return new JsonObject()
+                .put("amqpHost", amqpHost())
+                .put("amqpPort", amqpPort())
+                .put("username", username())
+                .put("password", password())
+                .put("brokerUrl", openWireUrl());
+    }
+
+    /**
+     * Stops the broker if this transport started one.
+     */
+    @Override
+    void close();
+
+    /**
+     * The transport for the configured mode. Blocks while an embedded broker
+     * starts, so call it before deploying, not from an event loop.
+     */
+    static BrokerTransport configured() {
+        String mode = System.getProperty(MODE_PROPERTY, System.getenv(MODE_ENV));
+        if (mode == null || mode.isBlank() || "remote".equalsIgnoreCase(mode)) {
+            return RemoteBrokerTransport.configured();
+        }
+        if ("embedded".equalsIgnoreCase(mode)) {
+            return EmbeddedBrokerTransport.start();
+        }
+        throw new IllegalArgumentException("Unknown broker mode: " + mode + " (remote or embedded)");
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.spi.cluster.hazelcast.ConfigUtil;
+import io.vertx.spi.cluster.hazelcast.HazelcastClusterManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the Vert.x instance for the sample apps, clustered over Hazelcast when
+ * -Dmain.clustered=true or MAIN_CLUSTERED=true.
+ *
+ * Members discover each other over TCP rather than multicast. By default every
+ * member is expected on 127.0.0.1, which is enough to run several JVMs on one box;
+ * set -Dcluster.members=host1,host2 and -Dcluster.host=&lt;own address&gt; for real hosts.
+ */
+public final class ClusterSupport {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterSupport.class);
+
+    private static final String CLUSTERED_PROPERTY = "main.clustered";
+    private static final String CLUSTERED_ENV = "MAIN_CLUSTERED";
+    private static final String MEMBERS_PROPERTY = "cluster.members";
+    private static final String HOST_PROPERTY = "cluster.host";
+    private static final String DEFAULT_HOST = "127.0.0.1";
+
+    private ClusterSupport() {
+    }
+
+    public static boolean isClustered() {
+        return Boolean.parseBoolean(System.getProperty(CLUSTERED_PROPERTY, System.getenv(CLUSTERED_ENV)));
+    }
+
+    /**
+     * Returns a clustered or local Vert.x instance depending on configuration,
+     * with the {@link CodecRegistry} codecs installed.
+     */
+    public static Future<Vertx> createVertx(VertxOptions options) {
+        Future<Vertx> vertx = isClustered()
+                ? clusteredVertx(options)
+                : Future.succeededFuture(Vertx.vertx(options));
+        return vertx.onSuccess(CodecRegistry::install);
+    }
+
+    public static Future<Vertx> clusteredVertx(VertxOptions options) {
+        String host = System.getProperty(HOST_PROPERTY, DEFAULT_HOST);
+
+        Config config = ConfigUtil.loadConfig();
+        config.getNetworkConfig().setPublicAddress(host);
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true);
+        for (String member : System.getProperty(MEMBERS_PROPERTY, DEFAULT_HOST).split(",")) {
+            join.getTcpIpConfig().addMember(member.trim());
+        }
+
+        options.getEventBusOptions().setHost(host);
+        return Vertx.builder()
+                .with(options)
+                .withClusterManager(new HazelcastClusterManager(config))
+                .buildClustered()
+                .onSuccess(vertx -> logger.info("Joined cluster as {}", host));
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.shareddata.LocalMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Central list of the event-bus codecs for our message records.
+ *
+ * Types are registered once with {@link #register}; {@link #install} then makes
+ * every registered codec the default codec for its type on a Vert.x instance, so
+ * senders can pass records without naming a codec in DeliveryOptions. Installing
+ * more than once on the same instance (e.g. from several verticles) is a no-op.
+ */
+public final class CodecRegistry {
+    private static final String INSTALLED_MAP = "codec.registry.installed";
+    private static final Map<Class<?>, Supplier<? extends MessageCodec<?, ?>>> CODECS = new LinkedHashMap<>();
+
+    static {
+        register(QueuedMessage.class, QueuedMessageCodec::new);
+        register(BridgeMessage.class, BridgeMessageCodec::new);
+    }
+
+    private CodecRegistry() {
+    }
+
+    public static synchronized <T> void register(Class<T> type, Supplier<? extends MessageCodec<T, ?>> codec) {
+        CODECS.put(type, codec);
+    }
+
+    public static synchronized void install(Vertx vertx) {
+        LocalMap<String, Boolean> installed = vertx.sharedData().getLocalMap(INSTALLED_MAP);
+        CODECS.forEach((type, codec) -> {
+            if (installed.putIfAbsent(type.getName(), Boolean.TRUE) == null) {
+                registerDefault(vertx, type, codec.get());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void registerDefault(Vertx vertx, Class<T> type, MessageCodec<?, ?> codec) {
+        vertx.eventBus().registerDefaultCodec(type, (MessageCodec<T, ?>) codec);
+    }
+}
@@ -0,0 +1,112 @@
+package org.example;
+
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.TransportConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-JVM ActiveMQ standing in for the real server, for tests, benchmarks and
+ * development without a broker installed.
+ *
+ * It keeps messages in memory only and listens for AMQP and OpenWire on free
+ * loopback ports, so the bridge's AMQP links and the JMS consumers go through
+ * the same client stacks, sockets and broker dispatch as in production. What
+ * it does not reproduce is the network and the broker's persistent store:
+ * numbers from it are an upper bound for a real deployment. Producer flow
+ * control still applies once the broker's default memory limit is reached.
+ *
+ * Each broker gets a name of its own, so several can run in one JVM. The
+ * broker stops on {@link #close()}, or with the JVM.
+ */
+public final class EmbeddedBrokerTransport implements BrokerTransport {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedBrokerTransport.class);
+    private static final String BROKER_NAME_PREFIX = "embedded-";
+    private static final AtomicInteger BROKERS = new AtomicInteger();
+    // The embedded broker does not authenticate; the bridge still sends these
+    private static final String CREDENTIAL = "admin";
+
+    private final BrokerService broker;
+    private final URI amqp;
+    private final String openWireUrl;
+
+    private EmbeddedBrokerTransport(BrokerService broker, URI amqp, String openWireUrl) {
+        this.broker = broker;
+        this.amqp = amqp;
+        this.openWireUrl = openWireUrl;
+    }
+
+    /**
+     * Starts a broker and blocks until it accepts connections.
+     */
+    public static EmbeddedBrokerTransport start() {
+        BrokerService broker = new BrokerService();
+        // ActiveMQ keeps a per-JVM registry of brokers by name
+        broker.setBrokerName(BROKER_NAME_PREFIX + BROKERS.incrementAndGet());
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.setAdvisorySupport(false);
+        try {
+            // Needs activemq-amqp on the classpath. The jms transformer turns the bridge's
+            // AMQP string bodies into TextMessages; the default (native) delivers bytes
+            TransportConnector amqp = broker.addConnector("amqp://127.0.0.1:0?transport.transformer=jms");
+            TransportConnector openWire = broker.addConnector("tcp://127.0.0.1:0");
+            broker.start();
+            broker.waitUntilStarted();
+            EmbeddedBrokerTransport transport = new EmbeddedBrokerTransport(broker,
+                    amqp.getPublishableConnectURI(), openWire.getPublishableConnectString());
+            logger.info("Started {}", transport);
+            return transport;
+        } catch (Exception e) {
+            stop(broker);
+            throw new IllegalStateException("Failed to start the embedded broker", e);
+        }
+    }
+
+    @Override
+    public String amqpHost() {
+        return amqp.getHost();
+    }
+
+    @Override
+    public int amqpPort() {
+        return amqp.getPort();
+    }
+
+    @Override
+    public String username() {
+        return CREDENTIAL;
+    }
+
+    @Override
+    public String password() {
+        return CREDENTIAL;
+    }
+
+    @Override
+    public String openWireUrl() {
+        return openWireUrl;
+    }
+
+    @Override
+    public void close() {
+        stop(broker);
+    }
+
+    private static void stop(BrokerService broker) {
+        try {
+            broker.stop();
+            broker.waitUntilStopped();
+        } catch (Exception e) {
+            logger.warn("Failed to stop the embedded broker {}: {}", broker.getBrokerName(), e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "embedded ActiveMQ (" + amqp + ", " + openWireUrl + ")";
+    }
+}
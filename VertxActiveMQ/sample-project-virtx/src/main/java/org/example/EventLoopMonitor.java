@@ -0,0 +1,59 @@
+package org.example;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Vertx;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how late a periodic probe runs on an event loop.
+ *
+ * Vert.x only logs blocked threads once they pass the warning threshold; this
+ * probe records every scheduling delay as {@code vertx_eventloop_delay_seconds}
+ * and accumulates the delay above {@value #BLOCKED_THRESHOLD_MS} ms into
+ * {@code vertx_eventloop_blocked_seconds_total}, both tagged with the event-loop
+ * thread. Call {@link #monitor} from a verticle context; each event loop is
+ * probed once however many verticles share it.
+ */
+public final class EventLoopMonitor {
+    private static final long PROBE_INTERVAL_MS = 100;
+    private static final long BLOCKED_THRESHOLD_MS = 10;
+    private static final Set<String> MONITORED = ConcurrentHashMap.newKeySet();
+
+    private EventLoopMonitor() {
+    }
+
+    public static void monitor(Vertx vertx, MeterRegistry registry) {
+        String thread = Thread.currentThread().getName();
+        if (registry == null || !MONITORED.add(thread)) {
+            return;
+        }
+        Timer delay = Timer.builder("vertx.eventloop.delay")
+                .description("Time a timer task waited beyond its due time")
+                .tag("thread", thread)
+                .publishPercentileHistogram()
+                .register(registry);
+        Counter blocked = Counter.builder("vertx.eventloop.blocked")
+                .baseUnit("seconds")
+                .description("Accumulated event-loop delay above " + BLOCKED_THRESHOLD_MS + " ms")
+                .tag("thread", thread)
+                .register(registry);
+
+        long[] due = {System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROBE_INTERVAL_MS)};
+        vertx.setPeriodic(PROBE_INTERVAL_MS, id -> {
+            long now = System.nanoTime();
+            long lateNanos = Math.max(now - due[0], 0);
+            // Periodic timers run at a fixed rate, so the next run is due one interval after this one was
+            due[0] += TimeUnit.MILLISECONDS.toNanos(PROBE_INTERVAL_MS);
+            delay.record(lateNanos, TimeUnit.NANOSECONDS);
+            long blockedNanos = lateNanos - TimeUnit.MILLISECONDS.toNanos(BLOCKED_THRESHOLD_MS);
+            if (blockedNanos > 0) {
+                blocked.increment(blockedNanos / 1e9);
+            }
+        });
+    }
+}
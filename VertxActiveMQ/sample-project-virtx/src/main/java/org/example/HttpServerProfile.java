@@ -0,0 +1,158 @@
+package org.example;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.Locale;
+
+/**
+ * Named {@link HttpServerOptions} presets, selected with the {@code httpProfile}
+ * config key, -Dhttp.profile or HTTP_PROFILE (config wins):
+ * <ul>
+ *   <li>{@code default}: Vert.x defaults, no compression</li>
+ *   <li>{@code tuned}: HTTP/1.1 for many short-lived clients. TCP_NODELAY,
+ *   TCP_FASTOPEN and TCP_QUICKACK (the last two need the native transport), a
+ *   larger accept backlog, an idle timeout, and gzip level 1 for responses above
+ *   the compression threshold</li>
+ *   <li>{@code h2c}: {@code tuned} plus HTTP/2 over cleartext (prior knowledge or
+ *   upgrade) with a high concurrent-stream limit and larger flow-control
+ *   windows, so a client can multiplex all its requests over one connection</li>
+ * </ul>
+ * Any {@code HttpServerOptions} field can still be overridden through the
+ * {@code httpServerOptions} config object, and {@code compressionThreshold} in
+ * the config replaces the profile's threshold.
+ */
+public final class HttpServerProfile {
+    public static final String DEFAULT = "default";
+    public static final String TUNED = "tuned";
+    public static final String H2C = "h2c";
+
+    private static final String PROFILE_PROPERTY = "http.profile";
+    private static final String PROFILE_ENV = "HTTP_PROFILE";
+
+    private static final int ACCEPT_BACKLOG = 8192;
+    private static final int IDLE_TIMEOUT_SECONDS = 60;
+    private static final int COMPRESSION_LEVEL = 1;
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final long H2_MAX_CONCURRENT_STREAMS = 1000;
+    private static final int H2_STREAM_WINDOW = 1024 * 1024;
+    private static final int H2_CONNECTION_WINDOW = 16 * 1024 * 1024;
+
+    private final String name;
+    private final HttpServerOptions options;
+    private final boolean nativeTransport;
+    private final int compressionThreshold;
+
+    private HttpServerProfile(String name, HttpServerOptions options, boolean nativeTransport,
+                              int compressionThreshold) {
+        this.name = name;
+        this.options = options;
+        this.nativeTransport = nativeTransport;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * The profile named by {@code config} (or the system property / environment),
+     * with the config's overrides applied.
+     */
+    public static HttpServerProfile select(JsonObject config) {
+        String name = config.getString("httpProfile",
+                System.getProperty(PROFILE_PROPERTY, System.getenv(PROFILE_ENV)));
+        HttpServerProfile profile = named(name == null ? DEFAULT : name);
+
+        JsonObject overrides = config.getJsonObject("httpServerOptions");
+        HttpServerOptions options = overrides == null
+                ? profile.options
+                : new HttpServerOptions(profile.options.toJson().mergeIn(overrides));
+        return new HttpServerProfile(profile.name, options, profile.nativeTransport,
+                config.getInteger("compressionThreshold", profile.compressionThreshold));
+    }
+
+    public static HttpServerProfile named(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case DEFAULT:
+                return new HttpServerProfile(DEFAULT, new HttpServerOptions(), false, -1);
+            case TUNED:
+                return new HttpServerProfile(TUNED, tuned(), true, COMPRESSION_THRESHOLD);
+            case H2C:
+                return new HttpServerProfile(H2C, tuned()
+                        .setHttp2ClearTextEnabled(true)
+                        .setHttp2ConnectionWindowSize(H2_CONNECTION_WINDOW)
+                        .setInitialSettings(new Http2Settings()
+                                .setMaxConcurrentStreams(H2_MAX_CONCURRENT_STREAMS)
+                                .setInitialWindowSize(H2_STREAM_WINDOW)),
+                        true, COMPRESSION_THRESHOLD);
+            default:
+                throw new IllegalArgumentException("Unknown HTTP server profile: " + name);
+        }
+    }
+
+    private static HttpServerOptions tuned() {
+        return new HttpServerOptions()
+                .setTcpNoDelay(true)
+                .setTcpFastOpen(true)
+                .setTcpQuickAck(true)
+                .setAcceptBacklog(ACCEPT_BACKLOG)
+                .setIdleTimeout(IDLE_TIMEOUT_SECONDS)
+                .setCompressionSupported(true)
+                .setCompressionLevel(COMPRESSION_LEVEL)
+                .setDecompressionSupported(true);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * A copy of the options, safe to pass to {@code createHttpServer}.
+     */
+    public HttpServerOptions options() {
+        return new HttpServerOptions(options);
+    }
+
+    /**
+     * Whether Vert.x should be created with {@code setPreferNativeTransport(true)};
+     * TCP_FASTOPEN and TCP_QUICKACK are ignored on the NIO transport.
+     */
+    public boolean preferNativeTransport() {
+        return nativeTransport;
+    }
+
+    /**
+     * Returns a handler that keeps responses smaller than the compression threshold
+     * uncompressed (Vert.x skips compression when {@code content-encoding: identity}
+     * is set). Small bodies gain nothing from gzip but still pay its CPU and latency.
+     *
+     * The size comes from Content-Length when the headers are written. Vert.x
+     * 4.5 fills it in for {@code end(buffer)} before running headers-end
+     * handlers, but that ordering is not part of its API, so responses are ended
+     * through {@link ResponseTemplates#endJson}, which sets it explicitly.
+     * Chunked responses have no length and are compressed as before.
+     */
+    public Handler<RoutingContext> compressionThresholdHandler() {
+        return ctx -> {
+            if (compressionThreshold > 0 && options.isCompressionSupported()) {
+                ctx.addHeadersEndHandler(v -> {
+                    HttpServerResponse response = ctx.response();
+                    String length = response.headers().get(HttpHeaders.CONTENT_LENGTH);
+                    if (length != null && Long.parseLong(length) < compressionThreshold) {
+                        response.putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+                    }
+                });
+            }
+            ctx.next();
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name + " (compression " + (options.isCompressionSupported()
+                ? "level " + options.getCompressionLevel() + " above " + compressionThreshold + " bytes"
+                : "off") + ", native transport " + (nativeTransport ? "preferred" : "off") + ")";
+    }
+}
@@ -0,0 +1,158 @@
+package org.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.RequestOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+
+/**
+ * Drives the hot MainVerticle routes over loopback before the instance reports
+ * ready, so the JIT has compiled the request path and every instance has served
+ * connections by the time real traffic arrives.
+ *
+ * Requests alternate between {@code GET /status} and {@code POST /message}; the
+ * latter carry {@link #HEADER} with a token drawn at random per JVM. MainVerticle
+ * honours it only with that token and while the {@link Lifecycle} is still
+ * starting: the body is parsed and answered as usual but nothing is published
+ * or written to the outbox. Any other request carrying the header is rejected,
+ * so real traffic cannot be dropped by sending it. The request count comes from
+ * -Dwarmup.requests or WARMUP_REQUESTS (default 5000, 0 disables).
+ */
+public final class HttpWarmUp {
+    private static final Logger logger = LoggerFactory.getLogger(HttpWarmUp.class);
+    public static final String HEADER = "x-warm-up";
+    private static final String TOKEN = UUID.randomUUID().toString();
+
+    private static final String REQUESTS_PROPERTY = "warmup.requests";
+    private static final String REQUESTS_ENV = "WARMUP_REQUESTS";
+    private static final int DEFAULT_REQUESTS = 5_000;
+    private static final int CONCURRENCY = 32;
+    private static final String MESSAGE_BODY = "{\"role\":\"warm-up\"}";
+
+    private HttpWarmUp() {
+    }
+
+    public static int configuredRequests() {
+        String value = System.getProperty(REQUESTS_PROPERTY, System.getenv(REQUESTS_ENV));
+        if (value == null || value.isBlank()) {
+            return DEFAULT_REQUESTS;
+        }
+        try {
+            return Math.max(Integer.parseInt(value.trim()), 0);
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid warm-up request count '{}', using {}", value, DEFAULT_REQUESTS);
+            return DEFAULT_REQUESTS;
+        }
+    }
+
+    /**
+     * Whether {@code request} carries {@link #HEADER} at all, honoured or not.
+     */
+    public static boolean isMarked(HttpServerRequest request) {
+        return request.headers().contains(HEADER);
+    }
+
+    /**
+     * Whether {@code request} was sent by this JVM's warm-up.
+     */
+    public static boolean isOwn(HttpServerRequest request) {
+        return TOKEN.equals(request.getHeader(HEADER));
+    }
+
+    /**
+     * Sends {@code requests} requests to {@code localhost:port}; fails only if
+     * every one of them failed.
+     */
+    public static Future<Void> run(Vertx vertx, int port, int requests) {
+        if (requests == 0) {
+            return Future.succeededFuture();
+        }
+        Promise<Void> promise = Promise.promise();
+        vertx.getOrCreateContext().runOnContext(v -> new Run(vertx, port, requests, promise).start());
+        return promise.future();
+    }
+
+    /**
+     * One warm-up; all state is confined to the context it was started on.
+     */
+    private static final class Run {
+        private final HttpClient client;
+        private final RequestOptions status;
+        private final RequestOptions message;
+        private final int requests;
+        private final int sample;
+        private final Promise<Void> promise;
+        private final long started = System.nanoTime();
+
+        private int sent;
+        private int outstanding;
+        private int failures;
+        private long firstNanos;
+        private long lastNanos;
+
+        Run(Vertx vertx, int port, int requests, Promise<Void> promise) {
+            this.client = vertx.createHttpClient(new HttpClientOptions().setMaxPoolSize(CONCURRENCY));
+            this.status = new RequestOptions().setMethod(HttpMethod.GET)
+                    .setHost("localhost").setPort(port).setURI("/status");
+            this.message = new RequestOptions().setMethod(HttpMethod.POST)
+                    .setHost("localhost").setPort(port).setURI("/message")
+                    .putHeader(HEADER, TOKEN);
+            this.requests = requests;
+            this.sample = Math.max(requests / 10, 1);
+            this.promise = promise;
+        }
+
+        void start() {
+            for (int i = 0; i < Math.min(CONCURRENCY, requests); i++) {
+                outstanding++;
+                send();
+            }
+        }
+
+        private void send() {
+            int index = sent++;
+            RequestOptions options = index % 2 == 0 ? status : message;
+            long start = System.nanoTime();
+            client.request(options)
+                    .compose(req -> options == message ? req.send(MESSAGE_BODY) : req.send())
+                    .compose(response -> response.statusCode() == 200
+                            ? response.body()
+                            : Future.failedFuture("HTTP " + response.statusCode()))
+                    .onComplete(ar -> {
+                        long nanos = System.nanoTime() - start;
+                        if (ar.failed()) {
+                            failures++;
+                        } else if (index < sample) {
+                            firstNanos += nanos;
+                        } else if (index >= requests - sample) {
+                            lastNanos += nanos;
+                        }
+                        if (sent < requests) {
+                            send();
+                        } else if (--outstanding == 0) {
+                            finish();
+                        }
+                    });
+        }
+
+        private void finish() {
+            client.close();
+            logger.info("Warm-up: {} requests in {} ms, {} failed; mean latency {} us for the first {}, {} us for the last",
+                    requests, (System.nanoTime() - started) / 1_000_000, failures,
+                    firstNanos / sample / 1_000, sample, lastNanos / sample / 1_000);
+            if (failures == requests) {
+                promise.fail("All " + requests + " warm-up requests failed");
+            } else {
+                promise.complete();
+            }
+        }
+    }
+}
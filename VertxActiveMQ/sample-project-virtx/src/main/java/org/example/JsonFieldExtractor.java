@@ -0,0 +1,77 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a single top-level field from a JSON object held in a {@link Buffer}
+ * without building a {@code JsonObject}.
+ *
+ * The parser works directly on the buffer's backing array (or streams from a
+ * direct buffer), skips nested values it does not need and stops as soon as the
+ * field has been found, so the cost depends on where the field sits rather than
+ * on the size of the whole document.
+ */
+public final class JsonFieldExtractor {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private JsonFieldExtractor() {
+    }
+
+    /**
+     * Returns the text of the top-level scalar field {@code name}, or {@code null}
+     * if the field is absent or JSON {@code null}.
+     *
+     * @throws DecodeException if the body is not a JSON object or the field is not a scalar
+     */
+    public static String extract(Buffer body, String name) {
+        if (body == null || body.length() == 0) {
+            throw new DecodeException("Empty body");
+        }
+        try (JsonParser parser = createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DecodeException("Expected a JSON object");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                boolean match = name.equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (!match) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value == JsonToken.VALUE_NULL) {
+                    return null;
+                }
+                if (value.isScalarValue()) {
+                    return parser.getText();
+                }
+                throw new DecodeException("Field '" + name + "' is not a scalar value");
+            }
+            if (token != JsonToken.END_OBJECT) {
+                throw new DecodeException("Malformed JSON object");
+            }
+            return null;
+        } catch (IOException e) {
+            throw new DecodeException("Failed to decode: " + e.getMessage(), e);
+        }
+    }
+
+    // getByteBuf() is deprecated in 4.x but is the only copy-free view of the buffer
+    @SuppressWarnings("deprecation")
+    private static JsonParser createParser(Buffer body) throws IOException {
+        ByteBuf buf = body.getByteBuf();
+        if (buf.hasArray()) {
+            return FACTORY.createParser(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes());
+        }
+        return FACTORY.createParser((InputStream) new ByteBufInputStream(buf));
+    }
+}
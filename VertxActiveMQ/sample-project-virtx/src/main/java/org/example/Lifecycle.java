@@ -0,0 +1,274 @@
+package org.example;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.web.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Startup and shutdown of the verticles of one Vert.x instance.
+ *
+ * {@link #start()} deploys every registered deployment at once (they must not
+ * depend on each other's start order), runs the warm-up, and only then reports
+ * ready on {@link #READY_PATH}. On SIGTERM the JVM shutdown hook drains the
+ * instance before closing it:
+ * <ol>
+ *   <li>{@code /ready} answers 503 and, after {@code shutdown.delay.ms} (time for
+ *   load balancers to notice), HTTP/1.1 responses carry {@code Connection: close}
+ *   so keep-alive clients move to another instance</li>
+ *   <li>it waits until no HTTP request is in flight</li>
+ *   <li>deployments are undeployed in registration order, so register producers
+ *   before the consumers they feed; after each one it waits until the event bus
+ *   has no pending messages (read from the Vert.x meters, skipped when metrics
+ *   are disabled), and each verticle's stop() acks or flushes its own work</li>
+ *   <li>Vert.x is closed</li>
+ * </ol>
+ * Steps 2 and 3 share the {@code shutdown.drain.ms} deadline (default 30 s);
+ * whatever is still outstanding then is logged and dropped. Both settings can
+ * also be given as SHUTDOWN_DELAY_MS and SHUTDOWN_DRAIN_MS.
+ */
+public final class Lifecycle implements Shareable {
+    private static final Logger logger = LoggerFactory.getLogger(Lifecycle.class);
+    public static final String READY_PATH = "/ready";
+
+    private static final String LIFECYCLE_MAP = "lifecycle";
+    private static final String DELAY_PROPERTY = "shutdown.delay.ms";
+    private static final String DELAY_ENV = "SHUTDOWN_DELAY_MS";
+    private static final String DRAIN_PROPERTY = "shutdown.drain.ms";
+    private static final String DRAIN_ENV = "SHUTDOWN_DRAIN_MS";
+    private static final long DEFAULT_DELAY_MS = 0;
+    private static final long DEFAULT_DRAIN_MS = 30_000;
+    private static final long POLL_MS = 50;
+    private static final String EVENT_BUS_PENDING = "vertx.eventbus.pending";
+
+    private enum State {
+        STARTING, READY, DRAINING, STOPPED
+    }
+
+    private final Vertx vertx;
+    private final List<Deployment> deployments = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Promise<Void> stopped = Promise.promise();
+    private Supplier<Future<?>> warmUp = Future::succeededFuture;
+    private volatile State state = State.STARTING;
+
+    private Lifecycle(Vertx vertx) {
+        this.vertx = vertx;
+    }
+
+    /**
+     * The lifecycle of {@code vertx}, shared by everything deployed on it.
+     */
+    public static Lifecycle of(Vertx vertx) {
+        LocalMap<String, Lifecycle> map = vertx.sharedData().getLocalMap(LIFECYCLE_MAP);
+        return map.computeIfAbsent(LIFECYCLE_MAP, key -> new Lifecycle(vertx));
+    }
+
+    /**
+     * Registers a deployment; {@code deploy} is called by {@link #start()} and may
+     * complete with {@code null} when there is nothing to deploy.
+     */
+    public Lifecycle deploy(String name, Supplier<Future<String>> deploy) {
+        deployments.add(new Deployment(name, deploy));
+        return this;
+    }
+
+    /**
+     * Sets the warm-up run after all deployments succeeded and before the instance
+     * reports ready. A failed warm-up is logged but does not fail the start.
+     */
+    public Lifecycle warmUp(Supplier<Future<?>> warmUp) {
+        this.warmUp = warmUp;
+        return this;
+    }
+
+    public Future<Void> start() {
+        long started = System.nanoTime();
+        // Before deploying, so a SIGTERM during startup still undeploys what is up and closes Vert.x
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdownAndWait, "lifecycle-shutdown"));
+        List<Future<String>> deployed = new ArrayList<>();
+        for (Deployment deployment : deployments) {
+            deployed.add(deployment.deploy.get().onSuccess(id -> deployment.id = id));
+        }
+        return Future.all(deployed)
+                .onSuccess(v -> logger.info("{} deployment(s) up in {} ms", deployments.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)))
+                // Skipped if a shutdown began while deploying
+                .compose(v -> (state == State.STARTING ? warmUp.get() : Future.succeededFuture())
+                        .otherwise(err -> {
+                            logger.warn("Warm-up failed, starting cold: {}", err.getMessage());
+                            return null;
+                        }))
+                .<Void>mapEmpty()
+                .onSuccess(v -> {
+                    synchronized (this) {
+                        // Not if a shutdown began while starting
+                        if (state != State.STARTING) {
+                            return;
+                        }
+                        state = State.READY;
+                    }
+                    logger.info("Ready in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                });
+    }
+
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * True while starting: warm-up requests are only honoured before the instance
+     * takes traffic.
+     */
+    public boolean isWarmingUp() {
+        return state == State.STARTING;
+    }
+
+    /**
+     * Counts in-flight requests; mount it on every route, ahead of the other handlers.
+     */
+    public Handler<RoutingContext> requestTracker() {
+        return ctx -> {
+            inFlight.incrementAndGet();
+            ctx.addEndHandler(ar -> inFlight.decrementAndGet());
+            if (ctx.request().version() != HttpVersion.HTTP_2) {
+                // Decided when the response goes out, so requests already in flight close their connection too
+                ctx.addHeadersEndHandler(v -> {
+                    if (state == State.DRAINING) {
+                        ctx.response().putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE);
+                    }
+                });
+            }
+            ctx.next();
+        };
+    }
+
+    /**
+     * 200 once warmed up, 503 while starting or draining.
+     */
+    public Handler<RoutingContext> readinessHandler() {
+        return ctx -> ResponseTemplates.endJson(ctx.response().setStatusCode(isReady() ? 200 : 503),
+                Buffer.buffer("{\"status\":\"" + state.name().toLowerCase() + "\"}"));
+    }
+
+    /**
+     * Drains and closes the Vert.x instance; see the class comment for the steps.
+     */
+    public Future<Void> shutdown() {
+        synchronized (this) {
+            if (state == State.DRAINING || state == State.STOPPED) {
+                return stopped.future();
+            }
+            state = State.DRAINING;
+        }
+        long drainMs = setting(DRAIN_PROPERTY, DRAIN_ENV, DEFAULT_DRAIN_MS);
+        long delayMs = setting(DELAY_PROPERTY, DELAY_ENV, DEFAULT_DELAY_MS);
+        logger.info("Draining: {} HTTP request(s) in flight, deadline {} ms", inFlight.get(), delayMs + drainMs);
+
+        Promise<Void> delayed = Promise.promise();
+        if (delayMs > 0) {
+            vertx.setTimer(delayMs, id -> delayed.complete());
+        } else {
+            delayed.complete();
+        }
+        Future<Void> drained = delayed.future().compose(v -> {
+            long deadline = System.currentTimeMillis() + drainMs;
+            Future<Void> chain = awaitZero("HTTP request(s)", inFlight::get, deadline);
+            for (Deployment deployment : deployments) {
+                if (deployment.id != null) {
+                    chain = chain
+                            .compose(x -> vertx.undeploy(deployment.id)
+                                    .onFailure(err -> logger.warn("Failed to undeploy {}: {}",
+                                            deployment.name, err.getMessage()))
+                                    .otherwiseEmpty())
+                            .compose(x -> awaitZero("event-bus message(s)", this::pendingEventBusMessages, deadline));
+                }
+            }
+            return chain;
+        });
+        drained.compose(v -> vertx.close())
+                .onComplete(ar -> {
+                    state = State.STOPPED;
+                    logger.info("Shut down{}", ar.succeeded() ? "" : " with error: " + ar.cause().getMessage());
+                    stopped.complete();
+                });
+        return stopped.future();
+    }
+
+    private void shutdownAndWait() {
+        long limitMs = setting(DELAY_PROPERTY, DELAY_ENV, DEFAULT_DELAY_MS)
+                + setting(DRAIN_PROPERTY, DRAIN_ENV, DEFAULT_DRAIN_MS) + 5_000;
+        try {
+            shutdown().toCompletionStage().toCompletableFuture().get(limitMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.warn("Shutdown did not finish cleanly: {}", e.toString());
+        }
+    }
+
+    private Future<Void> awaitZero(String what, LongSupplier outstanding, long deadline) {
+        Promise<Void> promise = Promise.promise();
+        poll(what, outstanding, deadline, promise);
+        return promise.future();
+    }
+
+    private void poll(String what, LongSupplier outstanding, long deadline, Promise<Void> promise) {
+        long count = outstanding.getAsLong();
+        if (count <= 0) {
+            promise.complete();
+        } else if (System.currentTimeMillis() >= deadline) {
+            logger.warn("Drain deadline reached with {} {} outstanding", count, what);
+            promise.complete();
+        } else {
+            vertx.setTimer(POLL_MS, id -> poll(what, outstanding, deadline, promise));
+        }
+    }
+
+    private long pendingEventBusMessages() {
+        MeterRegistry registry = MetricsSupport.registry();
+        if (registry == null) {
+            return 0;
+        }
+        return (long) registry.find(EVENT_BUS_PENDING).gauges().stream().mapToDouble(Gauge::value).sum();
+    }
+
+    private static long setting(String property, String env, long defaultValue) {
+        String value = System.getProperty(property, System.getenv(env));
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(Long.parseLong(value.trim()), 0);
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid {} '{}', using {}", property, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static final class Deployment {
+        private final String name;
+        private final Supplier<Future<String>> deploy;
+        private volatile String id;
+
+        Deployment(String name, Supplier<Future<String>> deploy) {
+            this.name = name;
+            this.deploy = deploy;
+        }
+    }
+}
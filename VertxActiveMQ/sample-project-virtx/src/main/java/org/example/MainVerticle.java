@@ -0,0 +1,259 @@
+package org.example;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+public class MainVerticle extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(MainVerticle.class);
+    private static final String EVENT_ADDRESS = "message.queue";
+    private static final String STREAM_ADDRESS = "message.stream";
+    private static final int DEFAULT_PORT = 8080;
+
+    // Body limits per route
+    private static final long MESSAGE_BODY_LIMIT = 64 * 1024;
+    private static final long STREAM_BODY_LIMIT = 64 * 1024 * 1024;
+    private static final int STREAM_MAX_IN_FLIGHT_CHUNKS = 16;
+
+    private NodeSequence sequence;
+    private OutboxLog outbox;
+
+    // Instance count comes from -Dmain.verticle.instances or MAIN_VERTICLE_INSTANCES, default one per core
+    private static final String INSTANCES_PROPERTY = "main.verticle.instances";
+    private static final String INSTANCES_ENV = "MAIN_VERTICLE_INSTANCES";
+    private static final String ROUTE_REPORT_MAP = "main.verticle.routes";
+
+    public static void main(String[] args) {
+        int instances = instanceCount();
+        HttpServerProfile profile = HttpServerProfile.select(new JsonObject());
+        // Only the outbox drainer talks to the broker; -Dbroker.mode=embedded starts one in this JVM
+        BrokerTransport broker = OutboxLog.configuredDirectory() == null ? null : BrokerTransport.configured();
+
+        // Make sure every instance can get an event loop of its own; clustered if -Dmain.clustered=true
+        ClusterSupport.createVertx(MetricsSupport.withMetrics(new VertxOptions()
+                        .setEventLoopPoolSize(Math.max(instances, VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE))
+                        .setPreferNativeTransport(profile.preferNativeTransport())))
+                .onSuccess(vertx -> logger.info("HTTP profile {}, native transport {}", profile,
+                        vertx.isNativeTransportEnabled() ? "enabled" : "unavailable"))
+                .onSuccess(vertx -> deploy(vertx, instances, broker))
+                .onFailure(err -> logger.error("Failed to start Vert.x", err));
+
+        // Deploy the worker verticle
+//        vertx.deployVerticle(new WorkerVerticle())
+//                .onSuccess(id -> logger.info("WorkerVerticle deployed successfully"))
+//                .onFailure(err -> logger.error("Failed to deploy WorkerVerticle", err));
+    }
+
+    private static void deploy(Vertx vertx, int instances, BrokerTransport broker) {
+        // Deployed in parallel, warmed up, then ready; on SIGTERM the HTTP side drains before the drainer stops
+        Lifecycle.of(vertx)
+                // All instances listen on 8080; Vert.x shares the listener and round-robins connections
+                .deploy("MainVerticle", () -> vertx.deployVerticle(MainVerticle::new,
+                                new DeploymentOptions().setInstances(instances))
+                        .onSuccess(id -> {
+                            logger.info("MainVerticle deployed successfully ({} instances)", instances);
+                            logRouteReport(vertx);
+                        }))
+                .deploy("outbox drainer", () -> deployOutboxDrainer(vertx, broker))
+                .warmUp(() -> HttpWarmUp.run(vertx, DEFAULT_PORT, HttpWarmUp.configuredRequests()))
+                .start()
+                .onFailure(err -> logger.error("Failed to deploy MainVerticle or the outbox drainer", err));
+    }
+
+    private static Future<String> deployOutboxDrainer(Vertx vertx, BrokerTransport broker) {
+        if (broker == null) {
+            return Future.succeededFuture();
+        }
+        // One drainer per outbox; it blocks on the broker, so it gets a virtual thread
+        return vertx.deployVerticle(new OutboxDrainer(), new DeploymentOptions()
+                        .setThreadingModel(ThreadingModel.VIRTUAL_THREAD)
+                        .setConfig(broker.config()))
+                .onSuccess(id -> logger.info("Outbox drainer deployed for {}, shipping to {}",
+                        OutboxLog.configuredDirectory(), broker));
+    }
+
+    static int instanceCount() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        String value = System.getProperty(INSTANCES_PROPERTY, System.getenv(INSTANCES_ENV));
+        if (value == null || value.isBlank()) {
+            return cores;
+        }
+        try {
+            int instances = Integer.parseInt(value.trim());
+            if (instances > 0) {
+                return instances;
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through to the default
+        }
+        logger.warn("Ignoring invalid MainVerticle instance count '{}', using {}", value, cores);
+        return cores;
+    }
+
+    private static void logRouteReport(Vertx vertx) {
+        LocalMap<String, JsonObject> report = vertx.sharedData().getLocalMap(ROUTE_REPORT_MAP);
+        report.keySet().stream().sorted().forEach(eventLoop -> {
+            JsonObject entry = report.get(eventLoop);
+            logger.info("{}: {} instance(s) serving {}", eventLoop,
+                    entry.getInteger("instances"), entry.getJsonArray("routes").encode());
+        });
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        // Shared with the other instances so sequence numbers do not repeat on this node
+        sequence = NodeSequence.of(vertx);
+        // With an outbox, /message answers once the message is on local disk
+        String outboxDir = config().getString("outboxDir", OutboxLog.configuredDirectory());
+        if (outboxDir == null) {
+            startServer(startPromise);
+            return;
+        }
+        vertx.executeBlocking(() -> OutboxLog.open(vertx, Path.of(outboxDir),
+                        config().getInteger("outboxSegmentBytes", OutboxLog.DEFAULT_SEGMENT_BYTES),
+                        config().getLong("outboxMaxBytes", OutboxLog.DEFAULT_MAX_BYTES)))
+                .onSuccess(log -> {
+                    outbox = log;
+                    startServer(startPromise);
+                })
+                .onFailure(startPromise::fail);
+    }
+
+    private void startServer(Promise<Void> startPromise) {
+        HttpServerProfile profile = HttpServerProfile.select(config());
+        int port = config().getInteger("httpPort", DEFAULT_PORT);
+        Lifecycle lifecycle = Lifecycle.of(vertx);
+        Router router = Router.router(vertx);
+
+        // In-flight count for the shutdown drain; first, so it sees every request
+        router.route().handler(lifecycle.requestTracker());
+
+        // Adaptive concurrency limits: /message routes shed with 503 under overload, the rest are never shed
+        AdmissionControl admission = new AdmissionControl(vertx,
+                config().getJsonObject("admission", new JsonObject()));
+
+        // Leave responses below the profile's compression threshold uncompressed
+        if (profile.options().isCompressionSupported()) {
+            router.route().handler(profile.compressionThresholdHandler());
+        }
+
+        // Handle POST requests to /message: buffered, capped, no file uploads.
+        // All handlers sit on one route so metrics label it "/message"
+        BodyHandler messageBody = BodyHandler.create(false)
+                .setBodyLimit(MESSAGE_BODY_LIMIT)
+                .setPreallocateBodyBuffer(true);
+        router.post("/message").handler(admission.limit("/message")).handler(messageBody).handler(ctx -> {
+            // Read only "role" straight from the body buffer
+            String message;
+            try {
+                message = JsonFieldExtractor.extract(ctx.body().buffer(), "role");
+            } catch (DecodeException e) {
+                ctx.fail(400, e);
+                return;
+            }
+
+            long timestamp = System.currentTimeMillis();
+            if (HttpWarmUp.isMarked(ctx.request())) {
+                if (!lifecycle.isWarmingUp() || !HttpWarmUp.isOwn(ctx.request())) {
+                    // Only our own warm-up may skip delivery; anything else would be silently dropped
+                    ctx.fail(400);
+                    return;
+                }
+                // Same parsing and response, but nothing leaves this instance
+                respond(ctx, message);
+                return;
+            }
+            if (outbox == null) {
+                accept(ctx, message, timestamp);
+                return;
+            }
+            // On local disk before we answer; the drainer ships it to the broker later
+            outbox.append(new JsonObject().put("message", message).put("timestamp", timestamp).toBuffer().getBytes())
+                    .onSuccess(offset -> accept(ctx, message, timestamp))
+                    .onFailure(err -> ctx.fail(503, err));
+        });
+
+        // Handle POST requests to /message/stream: chunks go to the event bus as they arrive
+        router.post("/message/stream")
+                .handler(admission.limit("/message/stream"))
+                .handler(new StreamingBodyHandler(STREAM_ADDRESS, STREAM_BODY_LIMIT, STREAM_MAX_IN_FLIGHT_CHUNKS));
+
+        // Handle GET requests to /status (no body handler, nothing is buffered)
+        router.get("/status").handler(ctx -> ResponseTemplates.endJson(ctx.response(), ResponseTemplates.STATUS_RUNNING));
+
+        // Readiness: 503 until the warm-up is done and again once draining starts
+        router.get(Lifecycle.READY_PATH).handler(lifecycle.readinessHandler());
+
+        // Prometheus scrape endpoint, plus a lag probe for this instance's event loop
+        MeterRegistry registry = MetricsSupport.registry();
+        if (registry != null) {
+            router.get(MetricsSupport.METRICS_PATH).handler(MetricsSupport.scrapeHandler());
+            EventLoopMonitor.monitor(vertx, registry);
+        }
+
+        // Start the HTTP server with the selected profile's options
+        vertx.createHttpServer(profile.options())
+                .requestHandler(router)
+                .listen(port)
+                .onSuccess(server -> {
+                    logger.info("HTTP server started on port {} ({} profile)", port, profile.name());
+                    recordRoutes(router);
+                    startPromise.complete();
+                })
+                .onFailure(startPromise::fail);
+    }
+
+    private void accept(RoutingContext ctx, String message, long timestamp) {
+        // Publish message to event bus; shared as-is locally, binary-encoded for other nodes
+        vertx.eventBus().publish(EVENT_ADDRESS, new QueuedMessage(message, sequence.nodeId(), sequence.next(), timestamp));
+        respond(ctx, message);
+    }
+
+    private static void respond(RoutingContext ctx, String message) {
+        ResponseTemplates.endJson(ctx.response(), ResponseTemplates.messageSent(message));
+    }
+
+    @Override
+    public void stop() {
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    private void recordRoutes(Router router) {
+        JsonArray routes = new JsonArray(router.getRoutes().stream()
+                .map(MainVerticle::describe)
+                .collect(Collectors.toList()));
+        LocalMap<String, JsonObject> report = vertx.sharedData().getLocalMap(ROUTE_REPORT_MAP);
+        report.merge(Thread.currentThread().getName(),
+                new JsonObject().put("instances", 1).put("routes", routes),
+                (existing, added) -> existing.put("instances", existing.getInteger("instances") + 1));
+    }
+
+    private static String describe(Route route) {
+        String methods = route.methods() == null ? "ANY" : route.methods().stream()
+                .map(HttpMethod::name)
+                .sorted()
+                .collect(Collectors.joining(","));
+        return methods + " " + (route.getPath() == null ? "/*" : route.getPath());
+    }
+}
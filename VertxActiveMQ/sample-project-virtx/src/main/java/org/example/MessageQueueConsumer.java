@@ -0,0 +1,67 @@
+package org.example;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+
+/**
+ * Consumes "message.queue" on any cluster node. Start extra nodes with
+ * {@code java -Dmain.clustered=true -cp ... org.example.MessageQueueConsumer}.
+ *
+ * Besides counting messages it answers the pings and stats requests used by
+ * {@code ClusterPublishBenchmark} (jmh profile).
+ */
+public class MessageQueueConsumer extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(MessageQueueConsumer.class);
+    static final String EVENT_ADDRESS = "message.queue";
+    static final String PING_ADDRESS = "message.queue.ping";
+    static final String STATS_ADDRESS = "message.queue.stats";
+    static final String REPORTS_ADDRESS = "message.queue.stats.reports";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private long received;
+    private long firstReceivedAt;
+    private long lastReceivedAt;
+    private long totalLatencyMs;
+
+    public static void main(String[] args) {
+        ClusterSupport.createVertx(new VertxOptions())
+                .compose(vertx -> vertx.deployVerticle(new MessageQueueConsumer()))
+                .onSuccess(id -> logger.info("MessageQueueConsumer deployed successfully"))
+                .onFailure(err -> logger.error("Failed to deploy MessageQueueConsumer", err));
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        vertx.eventBus().<QueuedMessage>consumer(EVENT_ADDRESS, message -> {
+            long now = System.currentTimeMillis();
+            if (received++ == 0) {
+                firstReceivedAt = now;
+            }
+            lastReceivedAt = now;
+            totalLatencyMs += now - message.body().getPublishedAt();
+        });
+
+        // Echo pings so publishers can measure round trips without comparing clocks
+        vertx.eventBus().consumer(PING_ADDRESS, message -> message.reply(message.body()));
+
+        vertx.eventBus().<String>consumer(STATS_ADDRESS, message -> {
+            if ("reset".equals(message.body())) {
+                received = 0;
+                totalLatencyMs = 0;
+                return;
+            }
+            vertx.eventBus().send(REPORTS_ADDRESS, new JsonObject()
+                    .put("node", nodeId)
+                    .put("received", received)
+                    .put("firstReceivedAt", firstReceivedAt)
+                    .put("lastReceivedAt", lastReceivedAt)
+                    .put("averageLatencyMs", received == 0 ? 0.0 : (double) totalLatencyMs / received));
+        }).completionHandler(startPromise);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.Handler;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.micrometer.Label;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.PrometheusScrapingHandler;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+
+import java.util.EnumSet;
+
+/**
+ * Micrometer/Prometheus setup shared by the sample apps.
+ *
+ * Enables Vert.x's built-in meters (HTTP server latency histograms per route,
+ * event-bus sent/published/pending/processed per address, worker pool usage,
+ * JVM) on a Prometheus registry. Apps with a router mount {@link #scrapeHandler()}
+ * on {@link #METRICS_PATH}; the others start the embedded scrape server.
+ * Disable with -Dmetrics.enabled=false or METRICS_ENABLED=false.
+ */
+public final class MetricsSupport {
+    public static final String METRICS_PATH = "/metrics";
+
+    private static final String ENABLED_PROPERTY = "metrics.enabled";
+    private static final String ENABLED_ENV = "METRICS_ENABLED";
+
+    private MetricsSupport() {
+    }
+
+    public static boolean isEnabled() {
+        String value = System.getProperty(ENABLED_PROPERTY, System.getenv(ENABLED_ENV));
+        return value == null || Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Adds the metrics options to {@code options}; scrape through {@link #scrapeHandler()}.
+     */
+    public static VertxOptions withMetrics(VertxOptions options) {
+        return withMetrics(options, new VertxPrometheusOptions());
+    }
+
+    /**
+     * Adds the metrics options to {@code options} and serves them on
+     * {@code http://0.0.0.0:<port>/metrics}, for apps without an HTTP server of their own.
+     */
+    public static VertxOptions withMetrics(VertxOptions options, int embeddedServerPort) {
+        return withMetrics(options, new VertxPrometheusOptions()
+                .setStartEmbeddedServer(true)
+                .setEmbeddedServerOptions(new HttpServerOptions().setPort(embeddedServerPort))
+                .setEmbeddedServerEndpoint(METRICS_PATH));
+    }
+
+    private static VertxOptions withMetrics(VertxOptions options, VertxPrometheusOptions prometheus) {
+        if (!isEnabled()) {
+            return options;
+        }
+        return options.setMetricsOptions(new MicrometerMetricsOptions()
+                .setEnabled(true)
+                // Histogram buckets, so p99 can be computed per route and across instances
+                .setPrometheusOptions(prometheus.setEnabled(true).setPublishQuantiles(true))
+                .setJvmMetricsEnabled(true)
+                // HTTP_ROUTE is the route template, never the raw path, so cardinality stays bounded
+                .setLabels(EnumSet.of(Label.HTTP_ROUTE, Label.HTTP_METHOD, Label.HTTP_CODE,
+                        Label.EB_ADDRESS, Label.EB_SIDE, Label.EB_FAILURE, Label.POOL_TYPE, Label.POOL_NAME)));
+    }
+
+    public static Handler<RoutingContext> scrapeHandler() {
+        return PrometheusScrapingHandler.create();
+    }
+
+    /**
+     * The registry backing the Vert.x meters, or {@code null} when metrics are disabled.
+     */
+    public static MeterRegistry registry() {
+        return BackendRegistries.getDefaultNow();
+    }
+}
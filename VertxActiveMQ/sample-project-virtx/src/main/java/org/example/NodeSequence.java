@@ -0,0 +1,38 @@
+package org.example;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequence numbers for the messages published by one Vert.x instance.
+ *
+ * Every verticle instance on the node draws from the same counter, so numbers
+ * are unique per node; across a cluster the pair (node id, sequence) is. The
+ * node id is random and changes on restart, when the counter starts over.
+ */
+public final class NodeSequence implements Shareable {
+    private static final String SEQUENCE_MAP = "node.sequence";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong next = new AtomicLong();
+
+    private NodeSequence() {
+    }
+
+    public static NodeSequence of(Vertx vertx) {
+        LocalMap<String, NodeSequence> map = vertx.sharedData().getLocalMap(SEQUENCE_MAP);
+        return map.computeIfAbsent(SEQUENCE_MAP, key -> new NodeSequence());
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public long next() {
+        return next.getAndIncrement();
+    }
+}
@@ -0,0 +1,209 @@
+package org.example;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.json.JsonObject;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Ships the {@link OutboxLog} to an ActiveMQ queue in batches.
+ *
+ * Up to {@code batchSize} committed records are sent as persistent text
+ * messages in one transacted session and committed with a single broker round
+ * trip; only then is the log acked, so its segments can be deleted. While the
+ * broker is slow or down the records simply stay on disk and the drainer
+ * retries with exponential backoff, so the HTTP handlers never wait for the
+ * broker. A crash between the broker commit and the ack sends the last batch
+ * again: every message carries its log offset in the {@code outboxOffset}
+ * property for consumers that need to drop duplicates.
+ *
+ * Deploy one instance per outbox directory, on virtual threads or as a worker.
+ */
+public class OutboxDrainer extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDrainer.class);
+    public static final String OFFSET_PROPERTY = "outboxOffset";
+    private static final String STATS_ADDRESS = "app.outbox.stats";
+
+    // Overridable through the verticle config
+    private static final String DEFAULT_BROKER_URL = "tcp://localhost:61616";
+    private static final String DEFAULT_QUEUE = "app.queue";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_POLL_MS = 10;
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    private OutboxLog outbox;
+    private ActiveMQConnectionFactory factory;
+    private String queue;
+    private int batchSize;
+    private long pollMs;
+
+    private Connection connection;
+    private Session session;
+    private MessageProducer producer;
+    private long offset;
+    private long backoffMs;
+    private volatile boolean stopped;
+
+    // Counters, only touched on this verticle's context
+    private long shipped;
+    private long batches;
+    private long failures;
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        if (context.threadingModel() == ThreadingModel.EVENT_LOOP) {
+            startPromise.fail("OutboxDrainer must be deployed on virtual threads or as a worker");
+            return;
+        }
+        JsonObject config = config();
+        String directory = config.getString("outboxDir", OutboxLog.configuredDirectory());
+        if (directory == null) {
+            startPromise.fail("No outbox directory: set outboxDir, -Doutbox.dir or OUTBOX_DIR");
+            return;
+        }
+        // No username means the factory's default, an anonymous connection
+        factory = new ActiveMQConnectionFactory(config.getString("username"), config.getString("password"),
+                config.getString("brokerUrl", DEFAULT_BROKER_URL));
+        queue = config.getString("queue", DEFAULT_QUEUE);
+        batchSize = config.getInteger("batchSize", DEFAULT_BATCH_SIZE);
+        pollMs = config.getLong("pollMs", DEFAULT_POLL_MS);
+        backoffMs = pollMs;
+
+        // Blocking is fine here: start() runs on a virtual or worker thread
+        outbox = OutboxLog.open(vertx, Path.of(directory),
+                config.getInteger("segmentBytes", OutboxLog.DEFAULT_SEGMENT_BYTES),
+                config.getLong("maxBytes", OutboxLog.DEFAULT_MAX_BYTES));
+        offset = outbox.ackedOffset();
+
+        vertx.eventBus().consumer(STATS_ADDRESS, message -> message.reply(stats()));
+        MeterRegistry registry = MetricsSupport.registry();
+        if (registry != null) {
+            FunctionCounter.builder("outbox.shipped", this, d -> d.shipped).register(registry);
+            FunctionCounter.builder("outbox.ship.failures", this, d -> d.failures).register(registry);
+        }
+
+        context.runOnContext(v -> {
+            connect();
+            drain();
+        });
+        startPromise.complete();
+    }
+
+    /**
+     * Ships one batch, then yields the context so stop() and the stats consumer can run.
+     */
+    private void drain() {
+        if (stopped) {
+            return;
+        }
+        OutboxLog.Batch batch;
+        try {
+            batch = outbox.read(offset, batchSize);
+            if (batch.isEmpty()) {
+                vertx.setTimer(pollMs, id -> drain());
+                return;
+            }
+            ship(batch);
+            outbox.ack(batch.end());
+        } catch (JMSException | IOException | RuntimeException e) {
+            // Anything not rescheduled here would end the drain loop for good, so unchecked
+            // failures (a corrupt record, a JMS runtime error) get the same backoff
+            failures++;
+            if (e instanceof RuntimeException) {
+                logger.error("Outbox shipping failed, retrying in {} ms", backoffMs, e);
+            } else {
+                logger.warn("Outbox shipping failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+            }
+            closeSession();
+            vertx.setTimer(backoffMs, id -> drain());
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            return;
+        }
+        offset = batch.end();
+        shipped += batch.records().size();
+        batches++;
+        backoffMs = pollMs;
+        context.runOnContext(v -> drain());
+    }
+
+    /**
+     * Connects ahead of the first batch, after start() so a slow broker doesn't
+     * hold up the deployment; if it fails, ship() connects on the next attempt.
+     */
+    private void connect() {
+        try {
+            openSession();
+        } catch (JMSException e) {
+            logger.warn("Broker not reachable yet, will retry: {}", e.getMessage());
+            closeSession();
+        }
+    }
+
+    private void openSession() throws JMSException {
+        connection = factory.createConnection();
+        connection.start();
+        session = connection.createSession(true, Session.SESSION_TRANSACTED);
+        producer = session.createProducer(session.createQueue(queue));
+        producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+    }
+
+    private void ship(OutboxLog.Batch batch) throws JMSException {
+        if (session == null) {
+            openSession();
+        }
+        List<byte[]> records = batch.records();
+        for (int i = 0; i < records.size(); i++) {
+            TextMessage message = session.createTextMessage(new String(records.get(i), StandardCharsets.UTF_8));
+            message.setLongProperty(OFFSET_PROPERTY, batch.offset(i));
+            producer.send(message);
+        }
+        // One broker round trip for the whole batch
+        session.commit();
+    }
+
+    private void closeSession() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (JMSException e) {
+                logger.warn("Failed to close JMS connection: {}", e.getMessage());
+            }
+        }
+        connection = null;
+        session = null;
+        producer = null;
+    }
+
+    private JsonObject stats() {
+        return new JsonObject()
+                .put("shipped", shipped)
+                .put("batches", batches)
+                .put("failures", failures)
+                .put("averageBatchSize", batches == 0 ? 0 : (double) shipped / batches)
+                .put("outbox", outbox.stats());
+    }
+
+    @Override
+    public void stop() {
+        // Runs on this verticle's context, so no batch is in flight
+        stopped = true;
+        closeSession();
+        outbox.close();
+    }
+}
@@ -0,0 +1,637 @@
+package org.example;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped outbox for messages bound for the broker.
+ *
+ * Records ({@code [length][CRC32C][payload]}) go into fixed-size segment files
+ * named after the log offset of their first byte. {@link #append} copies the
+ * record into the mapped segment and returns a future that completes, on the
+ * caller's context, once the record has been forced to disk. A single fsync
+ * thread forces whatever was appended since its previous pass, so concurrent
+ * appends share one fsync (group commit) without waiting for a fixed window.
+ *
+ * {@link #read} returns committed records from an offset. {@link #ack} stores
+ * the offset the broker has confirmed in a checkpoint file and deletes the
+ * segments that lie entirely below it. On open every record after the
+ * checkpoint is checked and the log is cut off at the first one torn by a
+ * crash; everything after the checkpoint is read again, so delivery is
+ * at-least-once.
+ *
+ * The fsync thread also maps the next segment ahead of time, so filling a
+ * segment only costs the appender a rename.
+ *
+ * One instance per directory is shared by all users in a Vert.x instance:
+ * get it with {@link #open} (which blocks while recovering) and call
+ * {@link #close()} once per open.
+ */
+public class OutboxLog implements Shareable {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxLog.class);
+    private static final String LOGS_MAP = "outbox.logs";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String SPARE_FILE = "next-segment";
+    private static final int HEADER_BYTES = 8;
+
+    // -Doutbox.dir or OUTBOX_DIR enables the outbox
+    private static final String DIR_PROPERTY = "outbox.dir";
+    private static final String DIR_ENV = "OUTBOX_DIR";
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+    private final Vertx vertx;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final AtomicInteger users = new AtomicInteger();
+    private final Thread fsyncThread;
+
+    // Guarded by this
+    private Segment active;
+    private long writeOffset;
+    private List<Waiter> waiters = new ArrayList<>();
+    private MappedByteBuffer spare;
+    private boolean directoryDirty;
+    private boolean closed;
+    private long appended;
+    private long rejected;
+
+    private volatile long committedOffset;
+    private volatile long ackedOffset;
+    private volatile long commits;
+    private DistributionSummary commitSizes;
+    private Timer fsyncTimer;
+
+    private OutboxLog(Vertx vertx, Path directory, int segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes <= HEADER_BYTES || maxBytes < segmentBytes) {
+            throw new IllegalArgumentException("Invalid outbox settings: segmentBytes=" + segmentBytes
+                    + ", maxBytes=" + maxBytes);
+        }
+        this.vertx = vertx;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        recover();
+
+        fsyncThread = new Thread(this::fsyncLoop, "outbox-fsync");
+        fsyncThread.setDaemon(true);
+        fsyncThread.start();
+
+        MeterRegistry registry = MetricsSupport.registry();
+        if (registry != null) {
+            registerMeters(registry);
+        }
+    }
+
+    /**
+     * The directory set with -Doutbox.dir or OUTBOX_DIR, or null when the outbox is disabled.
+     */
+    public static String configuredDirectory() {
+        String value = System.getProperty(DIR_PROPERTY, System.getenv(DIR_ENV));
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Returns the log for {@code directory}, opening and recovering it on first
+     * use. Blocks on file I/O, so call it from a worker or virtual thread.
+     */
+    public static OutboxLog open(Vertx vertx, Path directory, int segmentBytes, long maxBytes) {
+        LocalMap<String, OutboxLog> logs = vertx.sharedData().getLocalMap(LOGS_MAP);
+        OutboxLog log = logs.computeIfAbsent(directory.toAbsolutePath().toString(), path -> {
+            try {
+                return new OutboxLog(vertx, directory, segmentBytes, maxBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.users.incrementAndGet();
+        return log;
+    }
+
+    /**
+     * Appends one record. The future completes with the record's offset once the
+     * record is on disk, or fails if the log is closed or, with a
+     * {@link FullException}, if more than {@code maxBytes} are waiting for the broker.
+     */
+    public Future<Long> append(byte[] payload) {
+        if (payload.length == 0 || HEADER_BYTES + payload.length > segmentBytes) {
+            return Future.failedFuture(new IllegalArgumentException(
+                    "Outbox records must be 1 to " + (segmentBytes - HEADER_BYTES) + " bytes"));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        Promise<Long> promise = Promise.promise();
+        synchronized (this) {
+            if (closed) {
+                return Future.failedFuture(new IllegalStateException("Outbox is closed"));
+            }
+            int size = HEADER_BYTES + payload.length;
+            if (writeOffset + size - ackedOffset > maxBytes) {
+                rejected++;
+                return Future.failedFuture(new FullException(writeOffset - ackedOffset));
+            }
+            if (writeOffset + size > active.base + active.size) {
+                try {
+                    // Once per segment; normally just a rename of the spare the fsync thread mapped
+                    roll();
+                } catch (IOException e) {
+                    return Future.failedFuture(e);
+                }
+            }
+            int position = (int) (writeOffset - active.base);
+            active.buffer.put(position + HEADER_BYTES, payload);
+            active.buffer.putInt(position + 4, (int) crc.getValue());
+            active.buffer.putInt(position, payload.length);
+            long offset = writeOffset;
+            writeOffset += size;
+            appended++;
+            waiters.add(new Waiter(Vertx.currentContext(), promise, offset));
+            if (waiters.size() == 1) {
+                notifyAll();
+            }
+        }
+        return promise.future();
+    }
+
+    /**
+     * Reads up to {@code maxRecords} committed records starting at {@code offset}
+     * (a record boundary, e.g. {@link #ackedOffset()} or a previous batch's end).
+     */
+    public Batch read(long offset, int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        long end = committedOffset;
+        long position = Math.max(offset, ackedOffset);
+        while (position < end && records.size() < maxRecords) {
+            Segment segment = segmentAt(position);
+            int index = (int) (position - segment.base);
+            int length = index + HEADER_BYTES > segment.size ? 0 : segment.buffer.getInt(index);
+            if (length == 0) {
+                // Rest of the segment unused: the next one starts here
+                Long next = nextSegmentBase(segment.base);
+                if (next == null) {
+                    break;
+                }
+                position = next;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(index + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(index + 4)) {
+                throw new IllegalStateException("Corrupt outbox record at offset " + position + " in " + directory);
+            }
+            records.add(payload);
+            offsets.add(position);
+            position += HEADER_BYTES + length;
+        }
+        return new Batch(records, offsets, position);
+    }
+
+    /**
+     * Marks everything below {@code offset} as delivered: writes the checkpoint
+     * and deletes segments the log no longer needs. Blocks on file I/O.
+     */
+    public void ack(long offset) throws IOException {
+        if (offset <= ackedOffset) {
+            return;
+        }
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, offset));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        List<Segment> obsolete = new ArrayList<>();
+        synchronized (this) {
+            ackedOffset = offset;
+            for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+                Long next = segments.higherKey(entry.getKey());
+                if (next == null || next > ackedOffset) {
+                    break;
+                }
+                obsolete.add(entry.getValue());
+            }
+            obsolete.forEach(segment -> segments.remove(segment.base));
+        }
+        // The mapping itself is released when the buffer is collected
+        for (Segment segment : obsolete) {
+            Files.deleteIfExists(segment.path);
+        }
+    }
+
+    public long ackedOffset() {
+        return ackedOffset;
+    }
+
+    public long committedOffset() {
+        return committedOffset;
+    }
+
+    public synchronized JsonObject stats() {
+        return new JsonObject()
+                .put("directory", directory.toString())
+                .put("segments", segments.size())
+                .put("appended", appended)
+                .put("rejected", rejected)
+                .put("commits", commits)
+                .put("writeOffset", writeOffset)
+                .put("committedOffset", committedOffset)
+                .put("ackedOffset", ackedOffset)
+                .put("backlogBytes", writeOffset - ackedOffset);
+    }
+
+    /**
+     * Releases one {@link #open}; the last release commits pending records and stops the fsync thread.
+     */
+    public void close() {
+        if (users.decrementAndGet() > 0) {
+            return;
+        }
+        vertx.sharedData().getLocalMap(LOGS_MAP).removeIfPresent(directory.toAbsolutePath().toString(), this);
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+    }
+
+    private void fsyncLoop() {
+        while (true) {
+            List<Waiter> batch;
+            List<Segment> dirty;
+            long from = committedOffset;
+            long upTo;
+            boolean syncDirectory;
+            boolean needSpare;
+            synchronized (this) {
+                while (waiters.isEmpty() && !closed && spare != null) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (waiters.isEmpty() && closed) {
+                    return;
+                }
+                batch = waiters;
+                waiters = new ArrayList<>();
+                upTo = writeOffset;
+                dirty = new ArrayList<>(segments.subMap(segments.floorKey(from), true, upTo, false).values());
+                syncDirectory = directoryDirty;
+                directoryDirty = false;
+                needSpare = spare == null && !closed;
+            }
+            if (needSpare) {
+                prepareSpare();
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                for (Segment segment : dirty) {
+                    int first = (int) Math.max(from - segment.base, 0);
+                    int last = (int) Math.min(upTo - segment.base, segment.size);
+                    if (last > first) {
+                        segment.buffer.force(first, last - first);
+                    }
+                }
+                if (syncDirectory) {
+                    // A segment created since the last pass: its name has to be durable too
+                    forceDirectory();
+                }
+            } catch (UncheckedIOException e) {
+                failure = e.getCause();
+            } catch (IOException e) {
+                failure = e;
+            }
+            if (fsyncTimer != null) {
+                fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                commitSizes.record(batch.size());
+            }
+
+            if (failure == null) {
+                committedOffset = upTo;
+                commits++;
+            } else {
+                // The records stay in the page cache but we cannot promise durability
+                logger.error("Outbox fsync failed in {}", directory, failure);
+                if (syncDirectory) {
+                    synchronized (this) {
+                        directoryDirty = true;
+                    }
+                }
+            }
+            for (Waiter waiter : batch) {
+                waiter.complete(failure);
+            }
+        }
+    }
+
+    private synchronized Segment segmentAt(long offset) {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+        if (entry == null) {
+            throw new IllegalStateException("Offset " + offset + " is below the outbox in " + directory);
+        }
+        return entry.getValue();
+    }
+
+    private synchronized Long nextSegmentBase(long base) {
+        return segments.higherKey(base);
+    }
+
+    /**
+     * Starts a segment at {@code writeOffset}. Called with the lock held; only
+     * maps a file itself when the fsync thread has no spare ready (at open, or
+     * when segments fill faster than it can map them).
+     */
+    private void roll() throws IOException {
+        if (spare != null) {
+            Path path = segmentPath(writeOffset);
+            Files.move(directory.resolve(SPARE_FILE), path);
+            active = new Segment(writeOffset, path, spare);
+            spare = null;
+            notifyAll();
+        } else {
+            active = mapSegment(writeOffset);
+        }
+        segments.put(active.base, active);
+        directoryDirty = true;
+    }
+
+    /**
+     * Maps a fresh, zero-filled segment under a temporary name for {@link #roll}
+     * to rename. Runs on the fsync thread; a failure is logged and roll() falls
+     * back to mapping on the appender's thread.
+     */
+    private void prepareSpare() {
+        try {
+            MappedByteBuffer buffer = map(directory.resolve(SPARE_FILE));
+            synchronized (this) {
+                if (!closed) {
+                    spare = buffer;
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not map the next outbox segment in {} ahead of time", directory, e);
+        }
+    }
+
+    private Segment mapSegment(long base) throws IOException {
+        Path path = segmentPath(base);
+        return new Segment(base, path, map(path));
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            int size = (int) Math.max(channel.size(), segmentBytes);
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private void forceDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Maps the existing segments, drops the ones already acked and checks every
+     * record after the checkpoint. The log ends at the first torn record: its
+     * segment is zeroed from there and later segments are deleted.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(SPARE_FILE));
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        ackedOffset = Files.exists(checkpoint) ? ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong() : 0;
+
+        List<Long> bases = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> bases.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        bases.sort(null);
+        for (int i = 0; i < bases.size(); i++) {
+            if (i + 1 < bases.size() && bases.get(i + 1) <= ackedOffset) {
+                Files.delete(segmentPath(bases.get(i)));
+            } else {
+                Segment segment = mapSegment(bases.get(i));
+                segments.put(segment.base, segment);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            writeOffset = ackedOffset;
+            roll();
+        } else {
+            ackedOffset = Math.max(ackedOffset, segments.firstKey());
+            long lastBase = segments.lastKey();
+            // Pages of any unacked segment can be lost in a crash, not only the last one's.
+            // The fsync thread forces segments in offset order, so no record past the first
+            // torn one was ever confirmed to an appender
+            for (Segment segment : List.copyOf(segments.values())) {
+                if (active != null) {
+                    logger.warn("Outbox {}: dropping {}, written after a torn record", directory, segment.path);
+                    segments.remove(segment.base);
+                    Files.delete(segment.path);
+                    continue;
+                }
+                int end = scan(segment, (int) Math.min(Math.max(ackedOffset - segment.base, 0), segment.size));
+                // A length of 0 (or no room for a header) is where a segment normally ends
+                boolean torn = end + HEADER_BYTES <= segment.size && segment.buffer.getInt(end) != 0;
+                if (torn || segment.base == lastBase) {
+                    active = segment;
+                    writeOffset = segment.base + end;
+                    zeroTail(segment, end);
+                }
+            }
+        }
+        committedOffset = writeOffset;
+        directoryDirty = true;
+        logger.info("Outbox {} recovered: {} segment(s), {} bytes waiting for the broker",
+                directory, segments.size(), writeOffset - ackedOffset);
+    }
+
+    /**
+     * Returns the position after the last intact record from {@code position} on.
+     */
+    private static int scan(Segment segment, int position) {
+        MappedByteBuffer buffer = segment.buffer;
+        while (position + HEADER_BYTES <= segment.size) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segment.size) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * Zeroes a segment from {@code position}, so stale bytes of a torn write can never parse as records later.
+     */
+    private static void zeroTail(Segment segment, int position) {
+        MappedByteBuffer buffer = segment.buffer;
+        byte[] zeros = new byte[64 * 1024];
+        for (int index = position; index < segment.size; index += zeros.length) {
+            buffer.put(index, zeros, 0, Math.min(zeros.length, segment.size - index));
+        }
+        buffer.force();
+    }
+
+    /**
+     * Gauges and counters are read from the scrape thread without synchronization,
+     * which is fine for monitoring.
+     */
+    private void registerMeters(MeterRegistry registry) {
+        String path = directory.toString();
+        FunctionCounter.builder("outbox.appended", this, log -> log.appended).tag("dir", path).register(registry);
+        FunctionCounter.builder("outbox.rejected", this, log -> log.rejected).tag("dir", path).register(registry);
+        Gauge.builder("outbox.backlog.bytes", this, log -> log.writeOffset - log.ackedOffset)
+                .tag("dir", path).register(registry);
+        commitSizes = DistributionSummary.builder("outbox.commit.records").tag("dir", path).register(registry);
+        fsyncTimer = Timer.builder("outbox.fsync").tag("dir", path).publishPercentileHistogram().register(registry);
+    }
+
+    /**
+     * Records read by {@link #read}; {@link #end()} is where the next read starts
+     * and what to {@link #ack} once the broker has them.
+     */
+    public static final class Batch {
+        private final List<byte[]> records;
+        private final List<Long> offsets;
+        private final long end;
+
+        private Batch(List<byte[]> records, List<Long> offsets, long end) {
+            this.records = records;
+            this.offsets = offsets;
+            this.end = end;
+        }
+
+        public List<byte[]> records() {
+            return records;
+        }
+
+        public long offset(int index) {
+            return offsets.get(index);
+        }
+
+        public long end() {
+            return end;
+        }
+
+        public boolean isEmpty() {
+            return records.isEmpty();
+        }
+    }
+
+    /**
+     * The backlog is at {@code maxBytes}; the append can succeed once the broker has caught up.
+     */
+    public static final class FullException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private FullException(long backlogBytes) {
+            super("Outbox full: " + backlogBytes + " bytes waiting for the broker");
+        }
+    }
+
+    private static final class Segment {
+        private final long base;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int size;
+
+        private Segment(long base, Path path, MappedByteBuffer buffer) {
+            this.base = base;
+            this.path = path;
+            this.buffer = buffer;
+            this.size = buffer.capacity();
+        }
+    }
+
+    private static final class Waiter {
+        private final Context context;
+        private final Promise<Long> promise;
+        private final long offset;
+
+        private Waiter(Context context, Promise<Long> promise, long offset) {
+            this.context = context;
+            this.promise = promise;
+            this.offset = offset;
+        }
+
+        // Completes on the appender's context, like any other Vert.x future
+        private void complete(Throwable failure) {
+            if (context == null) {
+                finish(failure);
+            } else {
+                context.runOnContext(v -> finish(failure));
+            }
+        }
+
+        private void finish(Throwable failure) {
+            if (failure == null) {
+                promise.complete(offset);
+            } else {
+                promise.fail(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example;
+
+/**
+ * Typed body of the messages MainVerticle publishes to "message.queue".
+ *
+ * Instances are immutable, so local deliveries share one instance and only
+ * clustered deliveries go through {@link QueuedMessageCodec}.
+ */
+public final class QueuedMessage {
+    private final String role;
+    private final String node;
+    private final long sequence;
+    private final long publishedAt;
+
+    public QueuedMessage(String role, String node, long sequence, long publishedAt) {
+        this.role = role;
+        this.node = node;
+        this.sequence = sequence;
+        this.publishedAt = publishedAt;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * Id of the publishing node; see {@link NodeSequence}.
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Unique among the messages published by {@link #getNode()}.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Epoch milliseconds at which the message was published.
+     */
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "QueuedMessage{role=" + role + ", node=" + node + ", sequence=" + sequence + ", publishedAt=" + publishedAt + "}";
+    }
+}
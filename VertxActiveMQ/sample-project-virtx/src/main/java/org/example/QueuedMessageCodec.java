@@ -0,0 +1,29 @@
+package org.example;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Binary codec for {@link QueuedMessage}.
+ *
+ * Wire layout: role and node (length-prefixed UTF-8), sequence (long), publishedAt (long).
+ */
+public class QueuedMessageCodec extends BinaryMessageCodec<QueuedMessage> {
+    public static final String NAME = "queued-message";
+
+    public QueuedMessageCodec() {
+        super(NAME);
+    }
+
+    @Override
+    protected void write(Buffer buffer, QueuedMessage message) {
+        writeString(buffer, message.getRole());
+        writeString(buffer, message.getNode());
+        buffer.appendLong(message.getSequence())
+                .appendLong(message.getPublishedAt());
+    }
+
+    @Override
+    protected QueuedMessage read(Reader reader) {
+        return new QueuedMessage(reader.readString(), reader.readString(), reader.readLong(), reader.readLong());
+    }
+}
@@ -0,0 +1,83 @@
+package org.example;
+
+/**
+ * A real ActiveMQ server, the production {@link BrokerTransport}.
+ *
+ * Defaults to a local broker with the stock ports and credentials; override
+ * with -Dbroker.host, -Dbroker.amqp.port, -Dbroker.openwire.url,
+ * -Dbroker.username and -Dbroker.password (or BROKER_HOST, BROKER_AMQP_PORT,
+ * BROKER_OPENWIRE_URL, BROKER_USERNAME, BROKER_PASSWORD). The OpenWire URL
+ * defaults to the broker host on port 61616 and may be a failover: URL.
+ *
+ * The broker's AMQP connector needs {@code ?transport.transformer=jms}, or the
+ * JMS consumers receive the bridge's messages as bytes and skip them.
+ */
+public final class RemoteBrokerTransport implements BrokerTransport {
+    private static final String DEFAULT_HOST = "localhost";
+    private static final int DEFAULT_AMQP_PORT = 5672;
+    private static final int DEFAULT_OPENWIRE_PORT = 61616;
+    private static final String DEFAULT_CREDENTIAL = "admin";
+
+    private final String host;
+    private final int amqpPort;
+    private final String openWireUrl;
+    private final String username;
+    private final String password;
+
+    public RemoteBrokerTransport(String host, int amqpPort, String openWireUrl, String username, String password) {
+        this.host = host;
+        this.amqpPort = amqpPort;
+        this.openWireUrl = openWireUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    static RemoteBrokerTransport configured() {
+        String host = setting("broker.host", "BROKER_HOST", DEFAULT_HOST);
+        return new RemoteBrokerTransport(host,
+                Integer.parseInt(setting("broker.amqp.port", "BROKER_AMQP_PORT", Integer.toString(DEFAULT_AMQP_PORT))),
+                setting("broker.openwire.url", "BROKER_OPENWIRE_URL", "tcp://" + host + ":" + DEFAULT_OPENWIRE_PORT),
+                setting("broker.username", "BROKER_USERNAME", DEFAULT_CREDENTIAL),
+                setting("broker.password", "BROKER_PASSWORD", DEFAULT_CREDENTIAL));
+    }
+
+    private static String setting(String property, String env, String defaultValue) {
+        String value = System.getProperty(property, System.getenv(env));
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    @Override
+    public String amqpHost() {
+        return host;
+    }
+
+    @Override
+    public int amqpPort() {
+        return amqpPort;
+    }
+
+    @Override
+    public String username() {
+        return username;
+    }
+
+    @Override
+    public String password() {
+        return password;
+    }
+
+    @Override
+    public String openWireUrl() {
+        return openWireUrl;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to stop: the broker is not ours
+    }
+
+    @Override
+    public String toString() {
+        return "remote ActiveMQ (amqp://" + host + ":" + amqpPort + ", " + openWireUrl + ")";
+    }
+}
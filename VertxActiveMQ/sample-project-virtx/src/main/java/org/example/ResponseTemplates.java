@@ -0,0 +1,52 @@
+package org.example;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * Pre-encoded response bodies and headers for the MainVerticle routes.
+ *
+ * Vert.x heap buffers are never released by the transport, so the same
+ * {@link Buffer} instance can be written to any number of responses.
+ */
+public final class ResponseTemplates {
+    public static final CharSequence CONTENT_TYPE = HttpHeaders.createOptimized("content-type");
+    public static final CharSequence APPLICATION_JSON = HttpHeaders.createOptimized("application/json");
+
+    public static final Buffer STATUS_RUNNING = Buffer.buffer("{\"status\":\"Server is running\"}");
+    public static final Buffer OVERLOADED = Buffer.buffer("{\"status\":\"Overloaded, retry later\"}");
+
+    private static final Buffer MESSAGE_SENT_PREFIX = Buffer.buffer("{\"status\":\"Message sent: ");
+    private static final Buffer MESSAGE_SENT_SUFFIX = Buffer.buffer("\"}");
+    private static final byte[] NULL_MESSAGE = {'n', 'u', 'l', 'l'};
+
+    private ResponseTemplates() {
+    }
+
+    /**
+     * Ends {@code response} with a JSON {@code body}. Content-Length is set here
+     * rather than left to {@code end(buffer)} because
+     * {@link HttpServerProfile#compressionThresholdHandler()} reads it before
+     * the headers are written.
+     */
+    public static Future<Void> endJson(HttpServerResponse response, Buffer body) {
+        return response
+                .putHeader(CONTENT_TYPE, APPLICATION_JSON)
+                .putHeader(HttpHeaders.CONTENT_LENGTH, Integer.toString(body.length()))
+                .end(body);
+    }
+
+    /**
+     * Builds {@code {"status":"Message sent: <message>"}} with the message JSON-escaped.
+     */
+    public static Buffer messageSent(String message) {
+        byte[] escaped = message == null ? NULL_MESSAGE : JsonStringEncoder.getInstance().quoteAsUTF8(message);
+        return Buffer.buffer(MESSAGE_SENT_PREFIX.length() + escaped.length + MESSAGE_SENT_SUFFIX.length())
+                .appendBuffer(MESSAGE_SENT_PREFIX)
+                .appendBytes(escaped)
+                .appendBuffer(MESSAGE_SENT_SUFFIX);
+    }
+}
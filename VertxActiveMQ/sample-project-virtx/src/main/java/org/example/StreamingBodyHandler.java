@@ -0,0 +1,147 @@
+package org.example;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.MessageProducer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.UUID;
+
+/**
+ * Forwards a request body to the event bus chunk by chunk instead of buffering it.
+ *
+ * Every chunk is sent to {@code address} with a {@code stream-id} and {@code seq}
+ * header; the stream is closed with an empty message whose {@code stream-event}
+ * header is {@code end} (or {@code abort} if the body exceeds the limit or the
+ * connection drops). At most {@code maxInFlight} chunks are outstanding at any
+ * time: the request is paused until the event bus has taken earlier ones.
+ */
+public class StreamingBodyHandler implements Handler<RoutingContext> {
+    public static final String STREAM_ID = "stream-id";
+    public static final String SEQ = "seq";
+    public static final String STREAM_EVENT = "stream-event";
+
+    private final String address;
+    private final long bodyLimit;
+    private final int maxInFlight;
+
+    public StreamingBodyHandler(String address, long bodyLimit, int maxInFlight) {
+        this.address = address;
+        this.bodyLimit = bodyLimit;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void handle(RoutingContext ctx) {
+        HttpServerRequest request = ctx.request();
+
+        // Reject early when the declared length is already over the limit
+        String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength != null && parseLength(contentLength) > bodyLimit) {
+            ctx.fail(413);
+            return;
+        }
+
+        new Stream(ctx, ctx.vertx().eventBus().sender(address)).start();
+    }
+
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private final class Stream {
+        private final RoutingContext ctx;
+        private final HttpServerRequest request;
+        private final MessageProducer<Buffer> producer;
+        private final String id = UUID.randomUUID().toString();
+        private long seq;
+        private long bytes;
+        private int inFlight;
+        private boolean done;
+
+        Stream(RoutingContext ctx, MessageProducer<Buffer> producer) {
+            this.ctx = ctx;
+            this.request = ctx.request();
+            this.producer = producer;
+        }
+
+        void start() {
+            request.handler(this::onChunk);
+            request.endHandler(v -> finish());
+            request.exceptionHandler(err -> abort());
+            request.resume();
+        }
+
+        private void onChunk(Buffer chunk) {
+            if (done) {
+                return;
+            }
+            bytes += chunk.length();
+            if (bytes > bodyLimit) {
+                abort();
+                ctx.response()
+                        .setStatusCode(413)
+                        .putHeader(HttpHeaders.CONNECTION, "close")
+                        .end()
+                        .onComplete(v -> request.connection().close());
+                return;
+            }
+
+            inFlight++;
+            if (inFlight >= maxInFlight) {
+                request.pause();
+            }
+            producer.deliveryOptions(headers("chunk").addHeader(SEQ, Long.toString(seq++)));
+            producer.write(chunk).onComplete(ar -> {
+                inFlight--;
+                if (ar.failed() && !done) {
+                    // Nobody is consuming the stream
+                    abort();
+                    ctx.fail(503, ar.cause());
+                } else if (!done && inFlight < maxInFlight) {
+                    request.resume();
+                }
+            });
+        }
+
+        private void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            producer.deliveryOptions(headers("end").addHeader(SEQ, Long.toString(seq)));
+            producer.write(Buffer.buffer());
+            producer.close();
+
+            ResponseTemplates.endJson(ctx.response().setStatusCode(202), new JsonObject()
+                    .put("streamId", id)
+                    .put("chunks", seq)
+                    .put("bytes", bytes)
+                    .toBuffer());
+        }
+
+        private void abort() {
+            if (done) {
+                return;
+            }
+            done = true;
+            producer.deliveryOptions(headers("abort"));
+            producer.write(Buffer.buffer());
+            producer.close();
+        }
+
+        private DeliveryOptions headers(String event) {
+            return new DeliveryOptions()
+                    .addHeader(STREAM_ID, id)
+                    .addHeader(STREAM_EVENT, event);
+        }
+    }
+}
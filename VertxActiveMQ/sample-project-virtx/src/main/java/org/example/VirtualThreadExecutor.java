@@ -0,0 +1,53 @@
+package org.example;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking calls (JDBC, file I/O) on virtual threads and
+ * completes the returned future on the caller's context.
+ *
+ * Unlike {@code executeBlocking}, concurrency is not capped by the worker pool:
+ * every call gets its own virtual thread, so thousands of calls parked on I/O
+ * cost little more than their stacks. A call that blocks while holding a monitor
+ * still pins its carrier thread; {@link VirtualThreadMetrics} reports those.
+ */
+public final class VirtualThreadExecutor {
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vthread-", 0).factory());
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+    private VirtualThreadExecutor() {
+    }
+
+    public static <T> Future<T> execute(Vertx vertx, Callable<T> task) {
+        Context context = vertx.getOrCreateContext();
+        Promise<T> promise = Promise.promise();
+        IN_FLIGHT.incrementAndGet();
+        EXECUTOR.execute(() -> {
+            try {
+                T result = task.call();
+                context.runOnContext(v -> promise.complete(result));
+            } catch (Throwable e) {
+                context.runOnContext(v -> promise.fail(e));
+            } finally {
+                IN_FLIGHT.decrementAndGet();
+            }
+        });
+        return promise.future();
+    }
+
+    /**
+     * Calls currently running or parked on a virtual thread.
+     */
+    public static int inFlight() {
+        return IN_FLIGHT.get();
+    }
+}
@@ -0,0 +1,162 @@
+package org.example;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.vertx.core.json.JsonObject;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts virtual-thread pinning from the JDK's own JFR events.
+ *
+ * A virtual thread that parks inside a synchronized block or a native frame
+ * keeps its carrier thread, which quietly turns it back into a scarce platform
+ * thread. The JDK records each such park as {@code jdk.VirtualThreadPinned}
+ * once it exceeds the threshold; this class streams those events in-process and
+ * keeps totals per blocking frame, so the culprit (a JDBC driver, a client
+ * library's monitor) shows up without attaching a profiler.
+ *
+ * The totals go to {@link #snapshot()} and, when Vert.x metrics are enabled, to
+ * the Micrometer registry: {@code vthreads.pinned} (count and total time),
+ * {@code vthreads.pinned.max}, {@code vthreads.pinned.frames} (count per
+ * blocking frame, a bounded set of code locations),
+ * {@code vthreads.submit.failures} and {@code vthreads.inflight}.
+ *
+ * Object.wait() is the exception on JDK 21: it pins too, but the scheduler
+ * adds a carrier thread for it instead of recording an event, so it shows up
+ * as a growing carrier count rather than here.
+ */
+public final class VirtualThreadMetrics {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+    private static final String THRESHOLD_PROPERTY = "vthreads.pinned.threshold.ms";
+    private static final long DEFAULT_THRESHOLD_MS = 20;
+    private static final int TOP_FRAMES = 5;
+
+    private static VirtualThreadMetrics instance;
+
+    private final RecordingStream stream = new RecordingStream();
+    private final LongAdder pins = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final AtomicLong maxPinnedNanos = new AtomicLong();
+    private final LongAdder submitFailures = new LongAdder();
+    private final Map<String, LongAdder> pinsByFrame = new ConcurrentHashMap<>();
+    private final MeterRegistry registry = MetricsSupport.registry();
+    private final List<Meter> meters = new CopyOnWriteArrayList<>();
+
+    private VirtualThreadMetrics(Duration threshold) {
+        registerMeters();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.enable(SUBMIT_FAILED_EVENT);
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.onEvent(SUBMIT_FAILED_EVENT, event -> submitFailures.increment());
+        stream.startAsync();
+    }
+
+    /**
+     * Starts recording on first use (threshold from -Dvthreads.pinned.threshold.ms,
+     * default 20 ms) and returns the process-wide instance.
+     */
+    public static synchronized VirtualThreadMetrics start() {
+        if (instance == null) {
+            long thresholdMs = Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MS);
+            instance = new VirtualThreadMetrics(Duration.ofMillis(thresholdMs));
+        }
+        return instance;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        pins.increment();
+        pinnedNanos.add(nanos);
+        maxPinnedNanos.accumulateAndGet(nanos, Math::max);
+        pinsByFrame.computeIfAbsent(blockingFrame(event.getStackTrace()), this::frameCounter).increment();
+    }
+
+    private void registerMeters() {
+        if (registry == null) {
+            return;
+        }
+        meters.add(FunctionTimer.builder("vthreads.pinned", this,
+                        m -> m.pins.sum(), m -> m.pinnedNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Virtual-thread parks that pinned their carrier longer than the threshold")
+                .register(registry));
+        meters.add(TimeGauge.builder("vthreads.pinned.max", this, TimeUnit.NANOSECONDS,
+                        m -> m.maxPinnedNanos.get())
+                .description("Longest pinned park since start")
+                .register(registry));
+        meters.add(FunctionCounter.builder("vthreads.submit.failures", this, m -> m.submitFailures.sum())
+                .description("Virtual threads that could not be scheduled on a carrier")
+                .register(registry));
+        meters.add(Gauge.builder("vthreads.inflight", VirtualThreadExecutor::inFlight)
+                .register(registry));
+    }
+
+    private LongAdder frameCounter(String frame) {
+        LongAdder count = new LongAdder();
+        if (registry != null) {
+            meters.add(FunctionCounter.builder("vthreads.pinned.frames", count, LongAdder::sum)
+                    .tag("frame", frame)
+                    .register(registry));
+        }
+        return count;
+    }
+
+    /**
+     * The first frame outside the JDK, i.e. the code that was holding the carrier.
+     */
+    private static String blockingFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "jdk";
+    }
+
+    public JsonObject snapshot() {
+        JsonObject frames = new JsonObject();
+        pinsByFrame.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(TOP_FRAMES)
+                .forEach(e -> frames.put(e.getKey(), e.getValue().sum()));
+        return new JsonObject()
+                .put("pins", pins.sum())
+                .put("pinnedMs", pinnedNanos.sum() / 1_000_000)
+                .put("maxPinnedMs", maxPinnedNanos.get() / 1_000_000)
+                .put("submitFailures", submitFailures.sum())
+                .put("topFrames", frames)
+                .put("inFlight", VirtualThreadExecutor.inFlight());
+    }
+
+    public void close() {
+        synchronized (VirtualThreadMetrics.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+        stream.close();
+        // A later start() registers fresh meters; the old ones would keep reading this instance
+        meters.forEach(registry::remove);
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class HttpServerProfileTest {
+    private static final Buffer LARGE_BODY = Buffer.buffer("{\"data\":\"" + "x".repeat(4096) + "\"}");
+
+    private Vertx vertx;
+    private HttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        HttpServerProfile profile = HttpServerProfile.select(new JsonObject().put("httpProfile", HttpServerProfile.TUNED));
+        Router router = Router.router(vertx);
+        router.route().handler(profile.compressionThresholdHandler());
+        router.get("/small").handler(ctx -> ResponseTemplates.endJson(ctx.response(), ResponseTemplates.STATUS_RUNNING));
+        router.get("/large").handler(ctx -> ResponseTemplates.endJson(ctx.response(), LARGE_BODY));
+        server = await(vertx.createHttpServer(profile.options()).requestHandler(router).listen(0));
+        client = vertx.createHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        await(vertx.close());
+    }
+
+    @Test
+    void smallResponse_IsNotCompressed() throws Exception {
+        Reply reply = get("/small");
+
+        assertNotEquals("gzip", reply.contentEncoding());
+        assertEquals(ResponseTemplates.STATUS_RUNNING, reply.body());
+    }
+
+    @Test
+    void largeResponse_IsCompressed() throws Exception {
+        Reply reply = get("/large");
+
+        assertEquals("gzip", reply.contentEncoding());
+    }
+
+    // The client does not decompress, so the body is what went over the wire
+    private Reply get(String path) throws Exception {
+        return await(client.request(HttpMethod.GET, server.actualPort(), "localhost", path)
+                .compose(request -> request.putHeader(HttpHeaders.ACCEPT_ENCODING, "gzip").send())
+                .compose(response -> response.body().map(body ->
+                        new Reply(response.getHeader(HttpHeaders.CONTENT_ENCODING), body))));
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    private record Reply(String contentEncoding, Buffer body) {
+    }
+}
@@ -0,0 +1,181 @@
+// AmqpForwarder.java
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.vertx.amqp.AmqpMessage;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.function.Function;
+
+/**
+ * Forwards event-bus messages to an AMQP sender under the broker's flow control.
+ *
+ * The event-bus consumer is paused and only fetches as many messages as the
+ * link has credit for. Each message is converted as it arrives and written at
+ * once: the AMQP client writes every send() on its own, so holding messages
+ * back would only add latency. Messages queue only when the link refuses a
+ * send; no more are fetched until the sender's drain handler fires and the
+ * queue has been written in one go (a batch).
+ *
+ * Messages not yet fetched wait in the consumer's buffer (1000 by default).
+ * Beyond that Vert.x discards them and fails the requests among them; with
+ * metrics enabled the discards show as vertx_eventbus_discarded_total for the
+ * address. Bodies the converter rejects with an IllegalArgumentException are
+ * counted as rejected and, for requests, failed with code 400.
+ *
+ * Must be used from the verticle's context (all state is confined to it).
+ */
+public class AmqpForwarder<T> {
+    private static final Logger logger = LoggerFactory.getLogger(AmqpForwarder.class);
+    private static final int REJECTED = 400;
+
+    private final PooledAmqpSender sender;
+    private final MessageConsumer<T> consumer;
+    private final Function<T, AmqpMessage> converter;
+
+    private final ArrayDeque<AmqpMessage> pending = new ArrayDeque<>();
+    private DistributionSummary batchSizes;
+    // Messages fetched from the consumer and not delivered yet
+    private long demand;
+    private boolean paused;
+    private long pausedSince;
+
+    // Counters
+    private long messagesSent;
+    private long batchesSent;
+    private long lastBatchSize;
+    private long largestBatchSize;
+    private long pauseCount;
+    private long pausedNanos;
+    private long rejected;
+
+    public AmqpForwarder(PooledAmqpSender sender, MessageConsumer<T> consumer,
+                         Function<T, AmqpMessage> converter) {
+        this.sender = sender;
+        this.consumer = consumer;
+        this.converter = converter;
+
+        // Nothing flows until flush() fetches what the link has credit for
+        consumer.pause();
+        consumer.handler(this::enqueue);
+
+        // Called when the broker grants more credit or the pooled link is re-attached
+        sender.drainHandler(v -> flush());
+        flush();
+    }
+
+    private void enqueue(Message<T> message) {
+        demand = Math.max(demand - 1, 0);
+        AmqpMessage converted;
+        try {
+            converted = converter.apply(message.body());
+        } catch (IllegalArgumentException e) {
+            rejected++;
+            logger.warn("Rejected message on {}: {}", consumer.address(), e.getMessage());
+            if (message.replyAddress() != null) {
+                message.fail(REJECTED, e.getMessage());
+            }
+            return;
+        }
+        pending.add(converted);
+        flush();
+    }
+
+    private void flush() {
+        // Write as much as the current credit allows; a refused message stays at the head of the queue
+        int batchSize = 0;
+        while (!pending.isEmpty() && sender.send(pending.peek())) {
+            pending.poll();
+            batchSize++;
+        }
+        if (batchSize > 0) {
+            recordBatch(batchSize);
+        }
+
+        if (!pending.isEmpty()) {
+            // Broker is behind: fetch nothing more until the drain handler fires
+            pause();
+        } else {
+            resume();
+        }
+    }
+
+    private void recordBatch(int batchSize) {
+        if (batchSizes != null) {
+            batchSizes.record(batchSize);
+        }
+        messagesSent += batchSize;
+        batchesSent++;
+        lastBatchSize = batchSize;
+        largestBatchSize = Math.max(largestBatchSize, batchSize);
+    }
+
+    private void pause() {
+        if (!paused) {
+            paused = true;
+            pausedSince = System.nanoTime();
+            pauseCount++;
+        }
+    }
+
+    private void resume() {
+        if (paused) {
+            paused = false;
+            pausedNanos += System.nanoTime() - pausedSince;
+        }
+        // Top the outstanding fetches up to the link's credit; at zero credit (link detached)
+        // the drain handler calls back once it is attached
+        long credits = sender.remainingCredits() - demand;
+        if (credits > 0) {
+            demand += credits;
+            consumer.fetch(credits);
+        }
+    }
+
+    /**
+     * Publishes the counters as meters tagged with {@code tags}. Gauges are read
+     * from the scrape thread without synchronization, which is fine for monitoring.
+     * A batch is what one flush wrote: one message while credit lasts, the queue
+     * after a drain.
+     */
+    public void registerMeters(MeterRegistry registry, Tags tags) {
+        batchSizes = DistributionSummary.builder("bridge.batch.size")
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry);
+        FunctionCounter.builder("bridge.messages.sent", this, s -> s.messagesSent).tags(tags).register(registry);
+        FunctionCounter.builder("bridge.messages.rejected", this, s -> s.rejected).tags(tags).register(registry);
+        FunctionCounter.builder("bridge.pauses", this, s -> s.pauseCount).tags(tags).register(registry);
+        FunctionCounter.builder("bridge.paused.time", this, s -> s.pausedNanos / 1e9)
+            .baseUnit("seconds")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder("bridge.queue.depth", pending, ArrayDeque::size).tags(tags).register(registry);
+        Gauge.builder("bridge.remaining.credits", sender, PooledAmqpSender::remainingCredits)
+            .tags(tags)
+            .register(registry);
+    }
+
+    public JsonObject stats() {
+        long totalPausedNanos = pausedNanos + (paused ? System.nanoTime() - pausedSince : 0);
+        return new JsonObject()
+            .put("messagesSent", messagesSent)
+            .put("batchesSent", batchesSent)
+            .put("lastBatchSize", lastBatchSize)
+            .put("largestBatchSize", largestBatchSize)
+            .put("averageBatchSize", batchesSent == 0 ? 0.0 : (double) messagesSent / batchesSent)
+            .put("rejected", rejected)
+            .put("queueDepth", pending.size())
+            .put("remainingCredits", sender.remainingCredits())
+            .put("paused", paused)
+            .put("pauseCount", pauseCount)
+            .put("pausedTimeMs", totalPausedNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,178 @@
+// BridgeBenchmark.java
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.example.BridgeMessage;
+import org.example.BrokerTransport;
+import org.example.CodecRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput and latency of the bridge on one box: event bus ->
+ * JMSBridgeVerticle -> AMQP -> ActiveMQ -> OpenWire -> JMSConsumerVerticle ->
+ * event bus.
+ *
+ * Runs against an in-JVM broker (see EmbeddedBrokerTransport) unless
+ * -Dbroker.mode=remote is given; a remote broker's app.queue must be otherwise
+ * unused. Leave -Doutbox.dir unset, this measures the direct AMQP path.
+ *
+ * Messages are sent at a fixed rate whether or not earlier ones have arrived,
+ * each carrying its intended send time, so latency is measured from that time
+ * and includes any time the bridge spent paused on a full sender. Run with
+ * {@code java -cp ... BridgeBenchmark [rate] [seconds] [warmUpSeconds]}.
+ */
+public class BridgeBenchmark {
+    private static final String BRIDGE_ADDRESS = "app.messages";
+    private static final String INBOUND_ADDRESS = "bench.queue.inbound";
+    private static final int INSTANCES = Runtime.getRuntime().availableProcessors();
+    private static final long DELIVERY_TIMEOUT_MS = 30_000;
+
+    public static void main(String[] args) throws Exception {
+        double rate = args.length > 0 ? Double.parseDouble(args[0]) : 10_000;
+        long durationMs = (args.length > 1 ? Long.parseLong(args[1]) : 30) * 1_000;
+        long warmUpMs = (args.length > 2 ? Long.parseLong(args[2]) : 10) * 1_000;
+        if (System.getProperty(BrokerTransport.MODE_PROPERTY, System.getenv(BrokerTransport.MODE_ENV)) == null) {
+            System.setProperty(BrokerTransport.MODE_PROPERTY, "embedded");
+        }
+
+        try (BrokerTransport broker = BrokerTransport.configured()) {
+            Vertx vertx = Vertx.vertx();
+            CodecRegistry.install(vertx);
+            try {
+                Run run = new Run(rate, durationMs, warmUpMs);
+                vertx.eventBus().<BridgeMessage>consumer(INBOUND_ADDRESS, message -> {
+                    run.received(message.body());
+                    // JMSConsumerVerticle acks once the request is answered
+                    message.reply(null);
+                });
+                await(vertx.deployVerticle(JMSBridgeVerticle::new, new DeploymentOptions()
+                    .setInstances(INSTANCES)
+                    .setConfig(broker.config())));
+                await(vertx.deployVerticle(JMSConsumerVerticle::new, new DeploymentOptions()
+                    .setInstances(INSTANCES)
+                    .setThreadingModel(ThreadingModel.WORKER)
+                    .setWorkerPoolName("bench-consumers")
+                    .setWorkerPoolSize(INSTANCES)
+                    .setConfig(broker.config().put("address", INBOUND_ADDRESS))));
+
+                System.out.printf("Sending %.0f msg/s for %d s (+%d s warm-up) through %s%n",
+                    rate, durationMs / 1_000, warmUpMs / 1_000, broker);
+                Promise<Void> sent = Promise.promise();
+                vertx.runOnContext(v -> run.start(vertx, sent));
+                await(sent.future());
+                run.awaitDelivery();
+                System.out.println(run.report());
+            } finally {
+                await(vertx.close());
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get();
+    }
+
+    /**
+     * Sender state lives on one event loop; the receive side is touched from the
+     * inbound consumer's event loop, hence the synchronization there.
+     */
+    private static final class Run {
+        private final long intervalNanos;
+        private final long durationNanos;
+        private final long warmUpNanos;
+        private final long[] latencies;
+        private long recordFrom;
+        private long end;
+        private long next;
+        private long sent;
+        private long recordedSent;
+        private long received;
+        private int recorded;
+        private long firstRecordedAt;
+        private long lastRecordedAt;
+
+        Run(double rate, long durationMs, long warmUpMs) {
+            this.intervalNanos = Math.max((long) (TimeUnit.SECONDS.toNanos(1) / rate), 1);
+            this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMs);
+            this.warmUpNanos = TimeUnit.MILLISECONDS.toNanos(warmUpMs);
+            this.latencies = new long[(int) Math.min(durationNanos / intervalNanos + 1, Integer.MAX_VALUE - 8)];
+        }
+
+        void start(Vertx vertx, Promise<Void> done) {
+            long start = System.nanoTime();
+            synchronized (this) {
+                recordFrom = start + warmUpNanos;
+            }
+            end = recordFrom + durationNanos;
+            next = start;
+            // Timers fire at millisecond granularity: each tick sends everything that has come due
+            vertx.setPeriodic(1, id -> {
+                long now = System.nanoTime();
+                while (next <= now && next < end) {
+                    // The intended send time travels as the message text (same JVM, same clock)
+                    vertx.eventBus().send(BRIDGE_ADDRESS,
+                        new BridgeMessage(Long.toString(next), System.currentTimeMillis()));
+                    sent++;
+                    if (next >= recordFrom) {
+                        recordedSent++;
+                    }
+                    next += intervalNanos;
+                }
+                if (next >= end) {
+                    vertx.cancelTimer(id);
+                    done.complete();
+                }
+            });
+        }
+
+        synchronized void received(BridgeMessage message) {
+            // The bridge ships {"message": text, "timestamp": ...}
+            long intended = Long.parseLong(new JsonObject(message.getText()).getString("message"));
+            long now = System.nanoTime();
+            received++;
+            if (intended >= recordFrom && recorded < latencies.length) {
+                if (recorded == 0) {
+                    firstRecordedAt = now;
+                }
+                lastRecordedAt = now;
+                latencies[recorded++] = now - intended;
+            }
+        }
+
+        void awaitDelivery() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+            while (System.currentTimeMillis() < deadline) {
+                synchronized (this) {
+                    if (received >= sent) {
+                        return;
+                    }
+                }
+                Thread.sleep(100);
+            }
+        }
+
+        synchronized String report() {
+            long[] sorted = Arrays.copyOf(latencies, recorded);
+            Arrays.sort(sorted);
+            double seconds = Math.max(lastRecordedAt - firstRecordedAt, 1) / 1e9;
+            return String.format("Sent %d, received %d (lost %d); recorded %d of %d at %.0f msg/s%n"
+                    + "Latency from intended send (us): p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                sent, received, sent - received, recorded, recordedSent, recorded / seconds,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 99.9),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000;
+        }
+    }
+}
@@ -1,57 +1,240 @@
 // JMSBridgeVerticle.java
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.amqp.AmqpClientOptions;
-import io.vertx.amqp.AmqpConnection;
+import io.vertx.amqp.AmqpMessage;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonObject;
+import org.example.BridgeMessage;
+import org.example.BrokerTransport;
+import org.example.CodecRegistry;
+import org.example.MetricsSupport;
+import org.example.OutboxLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JMSBridgeVerticle extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(JMSBridgeVerticle.class);
+
+    // Broker defaults, overridden by the BrokerTransport settings in the verticle config
     private static final String ACTIVEMQ_HOST = "localhost";
     private static final int ACTIVEMQ_PORT = 5672;  // AMQP port
     private static final String USERNAME = "admin";
     private static final String PASSWORD = "admin";
+    private static final String QUEUE_NAME = "app.queue";
+    private static final String STATS_ADDRESS = "app.messages.stats";
+    private static final String POOL_NAME = "activemq";
+
+    // Outbox and pooling defaults, overridable through the verticle config
+    private static final int DEFAULT_MAX_PENDING = 10_000;
+    private static final int DEFAULT_POOL_CONNECTIONS = 4;
+    private static final int DEFAULT_SENDERS_PER_CONNECTION = 2;
+    private static final long OUTBOX_RETRY_MS = 100;
+    private static final int REJECTED = 400;
+
+    private static final AtomicInteger INSTANCE_IDS = new AtomicInteger();
+
+    private AmqpConnectionPool pool;
+    private PooledAmqpSender sender;
+    private AmqpForwarder<Object> forwarder;
+    private OutboxLog outbox;
+    private int outboxPending;
+    private int outboxWaitingForSpace;
+    private boolean outboxPaused;
+    private boolean outboxFullLogged;
+    private long outboxFailed;
+    private long outboxRejected;
 
     @Override
     public void start(Promise<Void> startPromise) {
         // Configure AMQP client options
+        JsonObject config = config();
         AmqpClientOptions options = new AmqpClientOptions()
-            .setHost(ACTIVEMQ_HOST)
-            .setPort(ACTIVEMQ_PORT)
-            .setUsername(USERNAME)
-            .setPassword(PASSWORD);
-
-        // Create event bus consumer
-        vertx.eventBus().consumer("app.messages", message -> {
-            JsonObject json = (JsonObject) message.body();
-            // Forward message to ActiveMQ
-            sendToActiveMQ(json);
-        });
+            .setHost(config.getString("amqpHost", ACTIVEMQ_HOST))
+            .setPort(config.getInteger("amqpPort", ACTIVEMQ_PORT))
+            .setUsername(config.getString("username", USERNAME))
+            .setPassword(config.getString("password", PASSWORD));
+
+        // Create event bus consumer; BridgeMessage bodies arrive without a copy or JSON round trip
+        CodecRegistry.install(vertx);
+        MessageConsumer<Object> consumer = vertx.eventBus().consumer("app.messages");
+
+        // With an outbox the messages go to local disk and OutboxDrainer ships them
+        String outboxDir = config.getString("outboxDir", OutboxLog.configuredDirectory());
+        if (outboxDir != null) {
+            sendToOutbox(consumer, outboxDir, startPromise);
+            return;
+        }
+
+        // Lease a sender link from the shared connection pool
+        createAmqpConnection(options);
+        sendToActiveMQ(consumer);
+
+        // Prometheus meters when metrics are enabled (tagged per instance)
+        MeterRegistry registry = MetricsSupport.registry();
+        if (registry != null) {
+            forwarder.registerMeters(registry, Tags.of("instance", Integer.toString(INSTANCE_IDS.getAndIncrement())));
+        }
+
+        // Expose the forwarding counters and pool health
+        vertx.eventBus().consumer(STATS_ADDRESS, message -> message.reply(forwarder.stats()
+            .put("pool", pool.health())));
+
+        startPromise.complete();
+    }
 
-        // Create AMQP client
-        createAmqpConnection(options, startPromise);
+    private void createAmqpConnection(AmqpClientOptions options) {
+        JsonObject config = config();
+        pool = AmqpConnectionPool.shared(vertx, POOL_NAME, options, QUEUE_NAME,
+            config.getInteger("poolConnections", DEFAULT_POOL_CONNECTIONS),
+            config.getInteger("sendersPerConnection", DEFAULT_SENDERS_PER_CONNECTION));
+        // The lease reports a full write queue and no credit until its link is attached,
+        // so nothing is fetched from the event bus while the broker is unreachable
+        sender = pool.lease();
+        logger.info("Leased ActiveMQ sender link from pool {}", POOL_NAME);
     }
 
-    private void createAmqpConnection(AmqpClientOptions options, Promise<Void> startPromise) {
-        vertx.createNetClient()
-            .connect(options.getPort(), options.getHost())
-            .onSuccess(socket -> {
-                System.out.println("Connected to ActiveMQ");
+    private void sendToActiveMQ(MessageConsumer<Object> consumer) {
+        // Fetched from the event bus as the link grants credit and written as they arrive
+        forwarder = new AmqpForwarder<>(sender, consumer, JMSBridgeVerticle::toAmqpMessage);
+    }
+
+    private void sendToOutbox(MessageConsumer<Object> consumer, String outboxDir, Promise<Void> startPromise) {
+        int maxPending = config().getInteger("maxPending", DEFAULT_MAX_PENDING);
+        vertx.executeBlocking(() -> OutboxLog.open(vertx, Path.of(outboxDir),
+                OutboxLog.DEFAULT_SEGMENT_BYTES, OutboxLog.DEFAULT_MAX_BYTES))
+            .onSuccess(log -> {
+                outbox = log;
+                consumer.handler(message -> {
+                    byte[] record;
+                    try {
+                        record = toJson(message.body()).toBuffer().getBytes();
+                    } catch (IllegalArgumentException e) {
+                        outboxRejected++;
+                        logger.warn("Rejected message on app.messages: {}", e.getMessage());
+                        if (message.replyAddress() != null) {
+                            message.fail(REJECTED, e.getMessage());
+                        }
+                        return;
+                    }
+                    outboxPending++;
+                    updateOutboxFlow(consumer, maxPending);
+                    appendToOutbox(consumer, message, record, maxPending, false);
+                });
+                vertx.eventBus().consumer(STATS_ADDRESS, message -> message.reply(outbox.stats()
+                    .put("failed", outboxFailed)
+                    .put("rejected", outboxRejected)));
+                logger.info("Forwarding app.messages to the outbox in {}", outboxDir);
                 startPromise.complete();
             })
-            .onFailure(err -> {
-                System.err.println("Failed to connect to ActiveMQ: " + err.getMessage());
-                startPromise.fail(err);
-            });
+            .onFailure(startPromise::fail);
+    }
+
+    private void appendToOutbox(MessageConsumer<Object> consumer, Message<Object> message, byte[] record,
+                                int maxPending, boolean retry) {
+        outbox.append(record).onComplete(ar -> {
+            if (retry) {
+                outboxWaitingForSpace--;
+            }
+            if (ar.failed() && ar.cause() instanceof OutboxLog.FullException) {
+                // The drainer frees space as the broker catches up: hold the message, and
+                // take no new ones, until it fits
+                if (!outboxFullLogged) {
+                    outboxFullLogged = true;
+                    logger.warn("{}; holding app.messages until it drains", ar.cause().getMessage());
+                }
+                outboxWaitingForSpace++;
+                updateOutboxFlow(consumer, maxPending);
+                vertx.setTimer(OUTBOX_RETRY_MS, id -> appendToOutbox(consumer, message, record, maxPending, true));
+                return;
+            }
+            if (ar.succeeded()) {
+                outboxFullLogged = false;
+            } else {
+                // Closed or an unusable record: retrying cannot help, so tell the sender if it asked
+                outboxFailed++;
+                logger.error("Outbox append failed, message not forwarded", ar.cause());
+                if (message.replyAddress() != null) {
+                    message.fail(503, ar.cause().getMessage());
+                }
+            }
+            outboxPending--;
+            updateOutboxFlow(consumer, maxPending);
+        });
+    }
+
+    /**
+     * Stops pulling from the event bus while maxPending appends wait for their
+     * fsync or any message waits for outbox space.
+     */
+    private void updateOutboxFlow(MessageConsumer<Object> consumer, int maxPending) {
+        boolean pause = outboxPending >= maxPending || outboxWaitingForSpace > 0;
+        if (pause != outboxPaused) {
+            outboxPaused = pause;
+            if (pause) {
+                consumer.pause();
+            } else {
+                consumer.resume();
+            }
+        }
+    }
+
+    /**
+     * Accepts BridgeMessage, JsonObject and String bodies; a String becomes the
+     * {@code message} field, stamped with the current time like a BridgeMessage.
+     */
+    private static JsonObject toJson(Object body) {
+        if (body instanceof BridgeMessage) {
+            BridgeMessage message = (BridgeMessage) body;
+            return new JsonObject()
+                .put("message", message.getText())
+                .put("timestamp", message.getTimestamp());
+        }
+        if (body instanceof JsonObject) {
+            return (JsonObject) body;
+        }
+        if (body instanceof String) {
+            return new JsonObject()
+                .put("message", body)
+                .put("timestamp", System.currentTimeMillis());
+        }
+        throw new IllegalArgumentException("Unsupported body type "
+            + (body == null ? "null" : body.getClass().getName()));
     }
 
-    private void sendToActiveMQ(JsonObject message) {
-        // Implementation of sending message to ActiveMQ
-        System.out.println("Sending message to ActiveMQ: " + message.encode());
+    private static AmqpMessage toAmqpMessage(Object body) {
+        // String body so the JMS side receives a TextMessage
+        return AmqpMessage.create()
+            .contentType("application/json")
+            .withBody(toJson(body).encode())
+            .build();
+    }
+
+    @Override
+    public void stop(Promise<Void> stopPromise) {
+        if (outbox != null) {
+            outbox.close();
+        }
+        if (pool == null) {
+            stopPromise.complete();
+            return;
+        }
+        sender.close();
+        pool.release().onComplete(stopPromise);
     }
 
     public static void main(String[] args) {
+        // -Dbroker.mode=embedded runs without an ActiveMQ server
+        BrokerTransport broker = BrokerTransport.configured();
         Vertx vertx = Vertx.vertx();
-        vertx.deployVerticle(new JMSBridgeVerticle());
+        vertx.deployVerticle(new JMSBridgeVerticle(), new DeploymentOptions().setConfig(broker.config()));
     }
 }
@@ -0,0 +1,364 @@
+// AmqpConnectionPool.java
+import io.vertx.amqp.AmqpClient;
+import io.vertx.amqp.AmqpClientOptions;
+import io.vertx.amqp.AmqpConnection;
+import io.vertx.amqp.AmqpSender;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of AMQP connections, each carrying several sender links to the
+ * same address, shared by every verticle instance of one Vert.x instance.
+ *
+ * Callers are spread over the connections by event loop. Each connection runs
+ * in a small verticle of its own, deployed and undeployed by the pool, so its
+ * reconnect timers and health check do not depend on the verticle that
+ * happened to lease first. A lease can be used
+ * from the caller's context; the AMQP client hands each send over to the
+ * connection's context. Dropped connections are reopened with exponential
+ * backoff and full jitter, and a periodic health check recycles connections
+ * whose links have been closed by the broker.
+ */
+public class AmqpConnectionPool implements Shareable {
+    private static final String POOLS_MAP = "amqp.connection.pools";
+    private static final long BASE_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final long HEALTH_CHECK_INTERVAL_MS = 5_000;
+
+    private final Vertx vertx;
+    private final String name;
+    private final String address;
+    private final Slot[] slots;
+    private final Map<Thread, Slot> affinity = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicInteger users = new AtomicInteger();
+    private volatile boolean closed;
+
+    private AmqpConnectionPool(Vertx vertx, String name, AmqpClientOptions options, String address,
+                               int connections, int sendersPerConnection) {
+        if (connections <= 0 || sendersPerConnection <= 0) {
+            throw new IllegalArgumentException("Invalid pool size: connections=" + connections
+                + ", sendersPerConnection=" + sendersPerConnection);
+        }
+        this.vertx = vertx;
+        this.name = name;
+        this.address = address;
+        this.slots = new Slot[connections];
+        for (int i = 0; i < connections; i++) {
+            // The copy keeps the container id, and the broker refuses a second connection with the same one
+            AmqpClientOptions slotOptions = new AmqpClientOptions(options).setContainerId(options.getContainerId() + "-" + i);
+            slots[i] = new Slot(i, AmqpClient.create(vertx, slotOptions), sendersPerConnection);
+        }
+    }
+
+    /**
+     * Returns the pool registered under {@code name}, creating it on first use.
+     * Every caller must call {@link #release()} once it no longer needs the pool.
+     */
+    public static AmqpConnectionPool shared(Vertx vertx, String name, AmqpClientOptions options, String address,
+                                            int connections, int sendersPerConnection) {
+        LocalMap<String, AmqpConnectionPool> pools = vertx.sharedData().getLocalMap(POOLS_MAP);
+        AmqpConnectionPool pool = pools.computeIfAbsent(name,
+            n -> new AmqpConnectionPool(vertx, n, options, address, connections, sendersPerConnection));
+        pool.users.incrementAndGet();
+        return pool;
+    }
+
+    /**
+     * Leases a sender link on the connection assigned to the calling event loop,
+     * opening that connection if this is its first lease. The lease reports a
+     * full write queue until the link is attached, and delivers drain
+     * notifications on the calling context. Must be called from a verticle context.
+     */
+    public PooledAmqpSender lease() {
+        Context context = vertx.getOrCreateContext();
+        Slot slot = affinity.computeIfAbsent(Thread.currentThread(),
+            t -> slots[Math.floorMod(nextSlot.getAndIncrement(), slots.length)]);
+        slot.open();
+        return slot.nextLink().lease(context);
+    }
+
+    public Future<Void> release() {
+        if (users.decrementAndGet() > 0) {
+            return Future.succeededFuture();
+        }
+        vertx.sharedData().getLocalMap(POOLS_MAP).removeIfPresent(name, this);
+        closed = true;
+        List<Future<Void>> closing = new ArrayList<>();
+        for (Slot slot : slots) {
+            closing.add(slot.close());
+        }
+        return Future.all(closing).mapEmpty();
+    }
+
+    public JsonObject health() {
+        JsonArray connections = new JsonArray();
+        for (Slot slot : slots) {
+            connections.add(slot.health());
+        }
+        return new JsonObject()
+            .put("name", name)
+            .put("address", address)
+            .put("users", users.get())
+            .put("connections", connections);
+    }
+
+    private static long backoffDelay(int attempt) {
+        long cap = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 16));
+        return 1 + ThreadLocalRandom.current().nextLong(cap);
+    }
+
+    /**
+     * One connection and its sender links, deployed as a verticle on first lease.
+     * All state changes happen on the slot's context.
+     */
+    private final class Slot extends AbstractVerticle {
+        private final int index;
+        private final AmqpClient client;
+        private final PooledAmqpSender.Link[] links;
+        private final AtomicInteger nextLink = new AtomicInteger();
+
+        private Future<String> deployment;
+        private long healthCheckTimer = -1;
+        private AmqpConnection connection;
+        private boolean connecting;
+        private int attempt;
+        private long reconnects;
+        private long healthCheckFailures;
+        private String lastError;
+
+        Slot(int index, AmqpClient client, int sendersPerConnection) {
+            this.index = index;
+            this.client = client;
+            this.links = new PooledAmqpSender.Link[sendersPerConnection];
+            for (int i = 0; i < sendersPerConnection; i++) {
+                links[i] = new PooledAmqpSender.Link();
+            }
+        }
+
+        synchronized void open() {
+            if (deployment == null) {
+                // The inherited vertx field is only set once deployed
+                deployment = AmqpConnectionPool.this.vertx.deployVerticle(this);
+            }
+        }
+
+        synchronized Future<Void> close() {
+            if (deployment == null) {
+                return client.close();
+            }
+            // stop() closes the client on the slot's context
+            return deployment.compose(AmqpConnectionPool.this.vertx::undeploy, err -> client.close());
+        }
+
+        @Override
+        public void start() {
+            healthCheckTimer = vertx.setPeriodic(HEALTH_CHECK_INTERVAL_MS, id -> checkHealth());
+            connect();
+        }
+
+        @Override
+        public void stop(Promise<Void> stopPromise) {
+            if (healthCheckTimer != -1) {
+                vertx.cancelTimer(healthCheckTimer);
+            }
+            for (PooledAmqpSender.Link link : links) {
+                link.detach();
+            }
+            connection = null;
+            client.close().onComplete(stopPromise);
+        }
+
+        PooledAmqpSender.Link nextLink() {
+            return links[Math.floorMod(nextLink.getAndIncrement(), links.length)];
+        }
+
+        private void connect() {
+            if (closed) {
+                return;
+            }
+            connecting = true;
+            client.connect()
+                .compose(conn -> {
+                    connection = conn;
+                    conn.closeFuture().onComplete(v -> onClosed(conn));
+                    List<Future<AmqpSender>> senders = new ArrayList<>();
+                    for (PooledAmqpSender.Link link : links) {
+                        senders.add(conn.createSender(address).onSuccess(link::attach));
+                    }
+                    return Future.all(senders);
+                })
+                .onSuccess(v -> {
+                    connecting = false;
+                    attempt = 0;
+                })
+                .onFailure(err -> {
+                    connecting = false;
+                    lastError = err.getMessage();
+                    recycle();
+                });
+        }
+
+        private void onClosed(AmqpConnection conn) {
+            // Ignore close notifications for connections we already replaced
+            if (conn == connection && !closed) {
+                lastError = "connection closed";
+                recycle();
+            }
+        }
+
+        private void checkHealth() {
+            if (connecting || closed) {
+                return;
+            }
+            boolean healthy = connection != null && !connection.isDisconnected();
+            for (PooledAmqpSender.Link link : links) {
+                healthy &= link.isOpen();
+            }
+            if (!healthy) {
+                healthCheckFailures++;
+                recycle();
+            }
+        }
+
+        private void recycle() {
+            for (PooledAmqpSender.Link link : links) {
+                link.detach();
+            }
+            AmqpConnection old = connection;
+            connection = null;
+            if (old != null && !old.isDisconnected()) {
+                old.close();
+            }
+            if (closed) {
+                return;
+            }
+            long delay = backoffDelay(attempt++);
+            reconnects++;
+            connecting = true;
+            vertx.setTimer(delay, id -> connect());
+        }
+
+        JsonObject health() {
+            AmqpConnection conn = connection;
+            int openLinks = 0;
+            for (PooledAmqpSender.Link link : links) {
+                openLinks += link.isOpen() ? 1 : 0;
+            }
+            return new JsonObject()
+                .put("index", index)
+                .put("connected", conn != null && !conn.isDisconnected())
+                .put("openLinks", openLinks)
+                .put("reconnects", reconnects)
+                .put("healthCheckFailures", healthCheckFailures)
+                .put("lastError", lastError);
+        }
+    }
+}
+
+// PooledAmqpSender.java
+import io.vertx.amqp.AmqpMessage;
+import io.vertx.amqp.AmqpSender;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A lease on one sender link of an {@link AmqpConnectionPool}. The underlying
+ * {@link AmqpSender} is swapped when the pool reconnects, possibly between two
+ * calls; while no sender is attached the lease reports a full write queue and
+ * refuses sends. Drain notifications are delivered on the context that took
+ * the lease.
+ */
+public class PooledAmqpSender {
+    private final Link link;
+    private final Context owner;
+    private Runnable drainListener;
+
+    private PooledAmqpSender(Link link, Context owner) {
+        this.link = link;
+        this.owner = owner;
+    }
+
+    public boolean writeQueueFull() {
+        AmqpSender sender = link.sender;
+        return sender == null || sender.writeQueueFull();
+    }
+
+    /**
+     * Sends {@code message} unless the link is detached or out of credit, in
+     * which case it returns false and the caller keeps the message until the
+     * drain handler fires.
+     */
+    public boolean send(AmqpMessage message) {
+        // One read: the pool may detach the link at any time
+        AmqpSender sender = link.sender;
+        if (sender == null || sender.writeQueueFull()) {
+            return false;
+        }
+        sender.send(message);
+        return true;
+    }
+
+    public long remainingCredits() {
+        AmqpSender sender = link.sender;
+        return sender == null ? 0 : sender.remainingCredits();
+    }
+
+    public PooledAmqpSender drainHandler(Handler<Void> handler) {
+        if (drainListener != null) {
+            link.drainListeners.remove(drainListener);
+        }
+        drainListener = handler == null ? null : () -> owner.runOnContext(handler);
+        if (drainListener != null) {
+            link.drainListeners.add(drainListener);
+        }
+        return this;
+    }
+
+    public void close() {
+        drainHandler(null);
+    }
+
+    static final class Link {
+        private final List<Runnable> drainListeners = new CopyOnWriteArrayList<>();
+        private volatile AmqpSender sender;
+
+        PooledAmqpSender lease(Context owner) {
+            return new PooledAmqpSender(this, owner);
+        }
+
+        void attach(AmqpSender sender) {
+            this.sender = sender;
+            sender.drainHandler(v -> drainListeners.forEach(Runnable::run));
+            // A fresh link may already have credit; let paused writers retry
+            drainListeners.forEach(Runnable::run);
+        }
+
+        void detach() {
+            sender = null;
+        }
+
+        boolean isOpen() {
+            AmqpSender current = sender;
+            return current != null && current.unwrap().isOpen();
+        }
+    }
+}
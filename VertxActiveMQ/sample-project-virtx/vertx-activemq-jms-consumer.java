@@ -0,0 +1,540 @@
+// JMSConsumerVerticle.java
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+import org.example.BridgeMessage;
+import org.example.CodecRegistry;
+import org.example.MetricsSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains an ActiveMQ queue into the event bus.
+ *
+ * Deploy it as a worker, on a pool sized to the instance count, with several
+ * instances: every instance owns one JMS session and consumer (JMS sessions are
+ * single-threaded) on a connection from the shared {@link JMSConnectionPool},
+ * and drains it in bounded batches on its own context, so the drain rate scales
+ * with the number of instances rather than with ActiveMQ's single listener
+ * thread per session. Each text message is sent as a {@link BridgeMessage}
+ * request to {@code address}, whose handler must reply once it has handled it
+ * (the reply body is ignored) or fail it.
+ *
+ * A batch is forwarded as a whole, and the next one is received only once every
+ * request in it has been answered, so at most {@code batchSize} deliveries per
+ * instance are outstanding. If any of them fails or times out
+ * ({@code deliveryTimeoutMs}), the session is recovered. The broker then
+ * redelivers everything not yet acknowledged, including messages that were
+ * already handled, so handlers must tolerate duplicates. The next batch waits
+ * with the same backoff as a reconnect, and after the broker's maximum
+ * redeliveries (6 by default) a message goes to the dead-letter queue. Only
+ * {@code client} acknowledgement can redeliver. In the other modes messages are
+ * acked on receipt, and failed deliveries are only counted.
+ *
+ * The virtual-thread model works but saves nothing: ActiveMQ 5.18's receive()
+ * waits with Object.wait() inside the dispatch channel's monitor, which pins
+ * the virtual thread, and JDK 21 compensates with one more carrier thread per
+ * blocked receive (64 instances ran on 65 carriers). Those waits are not
+ * reported as jdk.VirtualThreadPinned, so {@link org.example.VirtualThreadMetrics}
+ * does not count them.
+ *
+ * When a receive fails (the default {@code tcp://} URL does not reconnect by
+ * itself) the instance drops its session, has the pool replace the broken
+ * connection and opens a new session, backing off exponentially up to
+ * {@link #MAX_BACKOFF_MS} between attempts. Unacked messages are redelivered
+ * by the broker. With a {@code failover:} URL the client reconnects underneath
+ * instead and receive() just returns nothing while the broker is away.
+ *
+ * Acknowledgement is configurable through {@code ackMode}:
+ * <ul>
+ *   <li>{@code client} (default): CLIENT_ACKNOWLEDGE, acked after their handlers
+ *   replied, once per {@code ackBatchSize} messages or {@code ackIntervalMs},
+ *   whichever comes first; a crash redelivers at most one unacked batch</li>
+ *   <li>{@code dups_ok}: DUPS_OK_ACKNOWLEDGE, the client acks once half the
+ *   prefetch has been delivered</li>
+ *   <li>{@code auto}: AUTO_ACKNOWLEDGE, one ack per message (the old behaviour)</li>
+ * </ul>
+ */
+public class JMSConsumerVerticle extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(JMSConsumerVerticle.class);
+    public static final String DEFAULT_ADDRESS = "app.queue.inbound";
+    private static final String STATS_ADDRESS = "app.queue.consumer.stats";
+    private static final String POOL_NAME = "activemq-consumers";
+
+    // Overridable through the verticle config
+    private static final String DEFAULT_BROKER_URL = "tcp://localhost:61616";
+    private static final String DEFAULT_QUEUE = "app.queue";
+    private static final int DEFAULT_CONNECTIONS = 2;
+    private static final int DEFAULT_PREFETCH = 500;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long DEFAULT_POLL_MS = 100;
+    private static final int DEFAULT_ACK_BATCH_SIZE = 256;
+    private static final long DEFAULT_ACK_INTERVAL_MS = 50;
+    private static final long DEFAULT_DELIVERY_TIMEOUT_MS = 30_000;
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    private static final AtomicInteger INSTANCE_IDS = new AtomicInteger();
+
+    private JMSConnectionPool pool;
+    private String queue;
+    private Connection connection;
+    private Session session;
+    private MessageConsumer consumer;
+    private String address;
+    private int ackMode;
+    private int batchSize;
+    private long pollMs;
+    private int ackBatchSize;
+    private long ackIntervalMs;
+    private DeliveryOptions deliveryOptions;
+    private long backoffMs;
+
+    private Message lastUnacked;
+    private int unacked;
+    private long firstUnackedAt;
+    // Requests not answered yet, at most one batch
+    private int inFlight;
+    private volatile boolean stopped;
+
+    // Counters, only touched on this instance's context
+    private long received;
+    private long acked;
+    private long acks;
+    private long skipped;
+    private long failed;
+    private long recovers;
+    private long batches;
+    private long reconnects;
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        if (context.threadingModel() == ThreadingModel.EVENT_LOOP) {
+            startPromise.fail("JMSConsumerVerticle must be deployed on virtual threads or as a worker");
+            return;
+        }
+        JsonObject config = config();
+        address = config.getString("address", DEFAULT_ADDRESS);
+        queue = config.getString("queue", DEFAULT_QUEUE);
+        ackMode = ackMode(config.getString("ackMode", "client"));
+        batchSize = config.getInteger("batchSize", DEFAULT_BATCH_SIZE);
+        pollMs = config.getLong("pollMs", DEFAULT_POLL_MS);
+        ackBatchSize = config.getInteger("ackBatchSize", DEFAULT_ACK_BATCH_SIZE);
+        ackIntervalMs = config.getLong("ackIntervalMs", DEFAULT_ACK_INTERVAL_MS);
+        deliveryOptions = new DeliveryOptions()
+            .setSendTimeout(config.getLong("deliveryTimeoutMs", DEFAULT_DELIVERY_TIMEOUT_MS));
+        backoffMs = pollMs;
+
+        CodecRegistry.install(vertx);
+        pool = JMSConnectionPool.shared(vertx, POOL_NAME,
+            config.getString("brokerUrl", DEFAULT_BROKER_URL),
+            // No username means the factory's default, an anonymous connection
+            config.getString("username"),
+            config.getString("password"),
+            config.getInteger("connections", DEFAULT_CONNECTIONS),
+            config.getInteger("prefetch", DEFAULT_PREFETCH));
+        try {
+            // Blocking is fine here: start() runs on a virtual or worker thread
+            openSession();
+        } catch (JMSException e) {
+            closeSession(true);
+            pool.release();
+            startPromise.fail(e);
+            return;
+        }
+
+        vertx.eventBus().consumer(STATS_ADDRESS, message -> message.reply(stats()));
+        MeterRegistry registry = MetricsSupport.registry();
+        if (registry != null) {
+            registerMeters(registry, Tags.of("instance", Integer.toString(INSTANCE_IDS.getAndIncrement()),
+                "ackMode", config.getString("ackMode", "client")));
+        }
+
+        context.runOnContext(v -> drain());
+        startPromise.complete();
+    }
+
+    /**
+     * Takes up to {@code batchSize} messages, waiting at most {@code pollMs} for the
+     * first one, and forwards them. The context is free while their handlers run,
+     * so stop() and the stats consumer can too.
+     */
+    private void drain() {
+        if (stopped) {
+            return;
+        }
+        int count = 0;
+        List<Future<?>> deliveries = new ArrayList<>();
+        try {
+            Message message = consumer.receive(pollMs);
+            while (message != null) {
+                forward(message, deliveries);
+                if (++count == batchSize) {
+                    break;
+                }
+                message = consumer.receiveNoWait();
+            }
+        } catch (JMSException e) {
+            onFailure("JMS receive failed", e);
+            return;
+        }
+        if (count > 0) {
+            batches++;
+        }
+        // An empty poll means the queue is idle: flush the pending acks
+        boolean idle = count == 0;
+        Future.join(deliveries).onComplete(ar -> settle(ar.succeeded(), idle));
+    }
+
+    /**
+     * Runs once every request of the batch has been answered: acks on success,
+     * otherwise has the broker redeliver what was not acked.
+     */
+    private void settle(boolean delivered, boolean idle) {
+        if (stopped) {
+            // stop() closed the session without acking the batch
+            return;
+        }
+        try {
+            if (delivered) {
+                acknowledge(idle);
+            } else {
+                recover();
+            }
+        } catch (JMSException e) {
+            onFailure("JMS acknowledge failed", e);
+            return;
+        }
+        if (delivered) {
+            backoffMs = pollMs;
+            context.runOnContext(v -> drain());
+        } else {
+            vertx.setTimer(backoffMs, id -> drain());
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    private void onFailure(String what, JMSException e) {
+        if (stopped) {
+            return;
+        }
+        logger.warn("{}, reconnecting in {} ms: {}", what, backoffMs, e.getMessage());
+        closeSession(true);
+        retryLater();
+    }
+
+    private void reconnect() {
+        if (stopped) {
+            return;
+        }
+        try {
+            openSession();
+        } catch (JMSException e) {
+            logger.warn("JMS reconnect failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+            closeSession(true);
+            retryLater();
+            return;
+        }
+        reconnects++;
+        logger.info("JMS consumer on {} reconnected", queue);
+        drain();
+    }
+
+    private void retryLater() {
+        vertx.setTimer(backoffMs, id -> reconnect());
+        backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+    }
+
+    private void openSession() throws JMSException {
+        connection = pool.acquire();
+        session = connection.createSession(false, ackMode);
+        consumer = session.createConsumer(session.createQueue(queue));
+    }
+
+    /**
+     * Closes the session; messages it delivered but did not ack go back to the
+     * broker. A {@code broken} connection is handed back to the pool to be replaced.
+     */
+    private void closeSession(boolean broken) {
+        if (session != null) {
+            try {
+                session.close();
+            } catch (JMSException e) {
+                logger.warn("Failed to close JMS session: {}", e.getMessage());
+            }
+        }
+        if (broken && connection != null) {
+            pool.invalidate(connection);
+        }
+        connection = null;
+        session = null;
+        consumer = null;
+        lastUnacked = null;
+        unacked = 0;
+    }
+
+    private void forward(Message message, List<Future<?>> deliveries) throws JMSException {
+        received++;
+        if (message instanceof TextMessage) {
+            inFlight++;
+            deliveries.add(vertx.eventBus()
+                .request(address, new BridgeMessage(((TextMessage) message).getText(), message.getJMSTimestamp()),
+                    deliveryOptions)
+                .onComplete(ar -> {
+                    inFlight--;
+                    if (ar.failed()) {
+                        failed++;
+                    }
+                }));
+        } else {
+            skipped++;
+            logger.warn("Skipping non-text JMS message {}", message.getJMSMessageID());
+        }
+        if (ackMode == Session.CLIENT_ACKNOWLEDGE) {
+            if (unacked == 0) {
+                firstUnackedAt = System.currentTimeMillis();
+            }
+            lastUnacked = message;
+            unacked++;
+        }
+    }
+
+    /**
+     * With CLIENT_ACKNOWLEDGE, acknowledging one message acks everything the
+     * session has delivered so far, so one call covers the whole batch.
+     */
+    private void acknowledge(boolean flush) throws JMSException {
+        if (unacked == 0) {
+            return;
+        }
+        if (flush || unacked >= ackBatchSize || System.currentTimeMillis() - firstUnackedAt >= ackIntervalMs) {
+            lastUnacked.acknowledge();
+            acked += unacked;
+            acks++;
+            unacked = 0;
+            lastUnacked = null;
+        }
+    }
+
+    /**
+     * Stops acknowledging the failed batch: with CLIENT_ACKNOWLEDGE the broker
+     * redelivers every unacked message of the session.
+     */
+    private void recover() throws JMSException {
+        logger.warn("Delivery to {} failed, {} unacked messages will be redelivered", address,
+            ackMode == Session.CLIENT_ACKNOWLEDGE ? unacked : 0);
+        recovers++;
+        if (ackMode == Session.CLIENT_ACKNOWLEDGE) {
+            session.recover();
+            unacked = 0;
+            lastUnacked = null;
+        }
+    }
+
+    /**
+     * Counters are read from the scrape thread without synchronization, which is fine for monitoring.
+     */
+    private void registerMeters(MeterRegistry registry, Tags tags) {
+        FunctionCounter.builder("jms.consumer.received", this, c -> c.received).tags(tags).register(registry);
+        FunctionCounter.builder("jms.consumer.acks", this, c -> c.acks).tags(tags).register(registry);
+        FunctionCounter.builder("jms.consumer.skipped", this, c -> c.skipped).tags(tags).register(registry);
+        FunctionCounter.builder("jms.consumer.failed", this, c -> c.failed).tags(tags).register(registry);
+        FunctionCounter.builder("jms.consumer.recovers", this, c -> c.recovers).tags(tags).register(registry);
+        FunctionCounter.builder("jms.consumer.batches", this, c -> c.batches).tags(tags).register(registry);
+        FunctionCounter.builder("jms.consumer.reconnects", this, c -> c.reconnects).tags(tags).register(registry);
+        Gauge.builder("jms.consumer.unacked", this, c -> c.unacked).tags(tags).register(registry);
+        Gauge.builder("jms.consumer.in.flight", this, c -> c.inFlight).tags(tags).register(registry);
+    }
+
+    private JsonObject stats() {
+        return new JsonObject()
+            .put("address", address)
+            .put("received", received)
+            .put("acked", ackMode == Session.CLIENT_ACKNOWLEDGE ? acked : received)
+            .put("acks", acks)
+            .put("skipped", skipped)
+            .put("failed", failed)
+            .put("recovers", recovers)
+            .put("inFlight", inFlight)
+            .put("batches", batches)
+            .put("averageBatchSize", batches == 0 ? 0 : (double) received / batches)
+            .put("reconnects", reconnects)
+            .put("pool", pool.health());
+    }
+
+    private static int ackMode(String name) {
+        switch (name.toLowerCase()) {
+            case "auto":
+                return Session.AUTO_ACKNOWLEDGE;
+            case "dups_ok":
+                return Session.DUPS_OK_ACKNOWLEDGE;
+            case "client":
+                return Session.CLIENT_ACKNOWLEDGE;
+            default:
+                throw new IllegalArgumentException("Unknown ackMode: " + name);
+        }
+    }
+
+    @Override
+    public void stop(Promise<Void> stopPromise) {
+        // Runs on this instance's context, so no receive is in progress; a batch still
+        // waiting for replies is not acked and goes back to the broker with the session
+        stopped = true;
+        if (session != null && inFlight == 0) {
+            try {
+                acknowledge(true);
+            } catch (JMSException e) {
+                logger.warn("Failed to ack before closing the JMS session: {}", e.getMessage());
+            }
+        }
+        closeSession(false);
+        pool.release();
+        stopPromise.complete();
+    }
+}
+
+// JMSConnectionPool.java
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQPrefetchPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of started JMS connections shared by the consumer instances of one
+ * Vert.x instance. Sessions are handed out round robin across the connections,
+ * which are opened on first use and closed when the last user releases the pool.
+ *
+ * The prefetch limit bounds how many messages the broker pushes to each consumer
+ * ahead of acknowledgement: large enough to keep a batch ready, small enough that
+ * an idle instance does not hold messages other instances could be draining.
+ */
+public class JMSConnectionPool implements Shareable {
+    private static final Logger logger = LoggerFactory.getLogger(JMSConnectionPool.class);
+    private static final String POOLS_MAP = "jms.connection.pools";
+
+    private final Vertx vertx;
+    private final String name;
+    private final ActiveMQConnectionFactory factory;
+    private final Connection[] connections;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final AtomicInteger users = new AtomicInteger();
+    private long replaced;
+
+    private JMSConnectionPool(Vertx vertx, String name, String brokerUrl, String username, String password,
+                              int connections, int prefetch) {
+        if (connections <= 0 || prefetch < 0) {
+            throw new IllegalArgumentException("Invalid pool settings: connections=" + connections
+                + ", prefetch=" + prefetch);
+        }
+        this.vertx = vertx;
+        this.name = name;
+        this.connections = new Connection[connections];
+        this.factory = new ActiveMQConnectionFactory(username, password, brokerUrl);
+        ActiveMQPrefetchPolicy prefetchPolicy = new ActiveMQPrefetchPolicy();
+        prefetchPolicy.setQueuePrefetch(prefetch);
+        factory.setPrefetchPolicy(prefetchPolicy);
+    }
+
+    /**
+     * Returns the pool registered under {@code name}, creating it on first use.
+     * Every caller must call {@link #release()} once it no longer needs the pool.
+     */
+    public static JMSConnectionPool shared(Vertx vertx, String name, String brokerUrl, String username,
+                                           String password, int connections, int prefetch) {
+        LocalMap<String, JMSConnectionPool> pools = vertx.sharedData().getLocalMap(POOLS_MAP);
+        JMSConnectionPool pool = pools.computeIfAbsent(name,
+            n -> new JMSConnectionPool(vertx, n, brokerUrl, username, password, connections, prefetch));
+        pool.users.incrementAndGet();
+        return pool;
+    }
+
+    /**
+     * Returns the next connection in round-robin order, connecting it if needed.
+     * Blocks while connecting, so call it from a worker thread.
+     */
+    public synchronized Connection acquire() throws JMSException {
+        int index = Math.floorMod(nextConnection.getAndIncrement(), connections.length);
+        if (connections[index] == null) {
+            Connection connection = factory.createConnection();
+            connection.start();
+            connections[index] = connection;
+        }
+        return connections[index];
+    }
+
+    /**
+     * Closes {@code connection} after a failure so the next {@link #acquire()} of
+     * its slot opens a new one. A no-op if another user already replaced it.
+     */
+    public synchronized void invalidate(Connection connection) {
+        for (int i = 0; i < connections.length; i++) {
+            if (connections[i] == connection) {
+                close(connection);
+                connections[i] = null;
+                replaced++;
+            }
+        }
+    }
+
+    public synchronized void release() {
+        if (users.decrementAndGet() > 0) {
+            return;
+        }
+        vertx.sharedData().getLocalMap(POOLS_MAP).removeIfPresent(name, this);
+        for (int i = 0; i < connections.length; i++) {
+            if (connections[i] != null) {
+                close(connections[i]);
+                connections[i] = null;
+            }
+        }
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            logger.warn("Failed to close JMS connection: {}", e.getMessage());
+        }
+    }
+
+    public synchronized JsonObject health() {
+        int open = 0;
+        for (Connection connection : connections) {
+            if (connection != null) {
+                open++;
+            }
+        }
+        return new JsonObject()
+            .put("name", name)
+            .put("brokerUrl", factory.getBrokerURL())
+            .put("prefetch", factory.getPrefetchPolicy().getQueuePrefetch())
+            .put("connections", connections.length)
+            .put("open", open)
+            .put("replaced", replaced)
+            .put("users", users.get());
+    }
+}
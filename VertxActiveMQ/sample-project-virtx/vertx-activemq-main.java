@@ -1,20 +1,43 @@
 // MainApplication.java
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
-import io.vertx.core.json.JsonObject;
-import org.apache.activemq.ActiveMQConnectionFactory;
-
-import javax.jms.*;
+import io.vertx.core.VertxOptions;
+import org.example.BridgeMessage;
+import org.example.BrokerTransport;
+import org.example.MetricsSupport;
+import org.example.OutboxDrainer;
+import org.example.OutboxLog;
+import org.example.VirtualThreadMetrics;
 
 public class MainApplication {
-    private static final String ACTIVEMQ_URL = "tcp://localhost:61616";
     private static final String QUEUE_NAME = "app.queue";
+    // Bridge instances share one AMQP connection pool
+    private static final int BRIDGE_INSTANCES = Runtime.getRuntime().availableProcessors();
+    // Each consumer instance owns one JMS session
+    private static final int CONSUMER_INSTANCES = Runtime.getRuntime().availableProcessors();
+    // "worker" (default) or "virtual"; see JMSConsumerVerticle on why virtual threads gain nothing there
+    private static final String CONSUMER_THREADING_PROPERTY = "jms.consumer.threading";
+    private static final String CONSUMER_THREADING_ENV = "JMS_CONSUMER_THREADING";
+    private static final String VTHREAD_STATS_ADDRESS = "app.vthreads.stats";
+    private static final int METRICS_PORT = 9090;
 
     public static void main(String[] args) {
+        // A real ActiveMQ by default; -Dbroker.mode=embedded starts one in this JVM
+        BrokerTransport broker = BrokerTransport.configured();
+        System.out.println("Using " + broker);
+
         // Deploy the bridge verticle
-        Vertx vertx = Vertx.vertx();
-        vertx.deployVerticle(new JMSBridgeVerticle(), ar -> {
+        // No HTTP server here, so Prometheus scrapes the embedded one
+        Vertx vertx = Vertx.vertx(MetricsSupport.withMetrics(new VertxOptions(), METRICS_PORT));
+        setupVirtualThreadMetrics(vertx);
+        DeploymentOptions options = new DeploymentOptions()
+            .setInstances(BRIDGE_INSTANCES)
+            .setConfig(broker.config());
+        vertx.deployVerticle(JMSBridgeVerticle::new, options, ar -> {
             if (ar.succeeded()) {
-                setupJMSConsumer();
+                setupOutboxDrainer(vertx, broker);
+                setupJMSConsumer(vertx, broker);
                 // Send a test message
                 sendTestMessage(vertx);
             } else {
@@ -23,45 +46,70 @@ public class MainApplication {
         });
     }
 
-    private static void setupJMSConsumer() {
-        try {
-            // Create JMS connection factory
-            ConnectionFactory factory = new ActiveMQConnectionFactory(ACTIVEMQ_URL);
-            Connection connection = factory.createConnection();
-            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-            
-            // Create destination (Queue)
-            Destination destination = session.createQueue(QUEUE_NAME);
-            
-            // Create consumer
-            MessageConsumer consumer = session.createConsumer(destination);
-            
-            // Set message listener
-            consumer.setMessageListener(message -> {
-                try {
-                    if (message instanceof TextMessage) {
-                        String text = ((TextMessage) message).getText();
-                        System.out.println("Received message: " + text);
-                    }
-                } catch (JMSException e) {
-                    e.printStackTrace();
-                }
-            });
-            
-            // Start connection
-            connection.start();
-            System.out.println("JMS Consumer started");
-            
-        } catch (JMSException e) {
-            e.printStackTrace();
+    private static void setupJMSConsumer(Vertx vertx, BrokerTransport broker) {
+        // One session per instance, so the queue drains on every core
+        DeploymentOptions options = new DeploymentOptions()
+            .setInstances(CONSUMER_INSTANCES)
+            .setConfig(broker.config().put("queue", QUEUE_NAME));
+        if (consumerThreading() == ThreadingModel.WORKER) {
+            // Dedicated pool so blocking receives cannot starve other worker tasks
+            options.setThreadingModel(ThreadingModel.WORKER)
+                .setWorkerPoolName("jms-consumers")
+                .setWorkerPoolSize(CONSUMER_INSTANCES);
+        } else {
+            options.setThreadingModel(ThreadingModel.VIRTUAL_THREAD);
         }
+
+        // The reply tells JMSConsumerVerticle the message was handled, so it can be acked
+        vertx.eventBus().<BridgeMessage>consumer(JMSConsumerVerticle.DEFAULT_ADDRESS, message -> {
+            System.out.println("Received message: " + message.body().getText());
+            message.reply(null);
+        });
+
+        vertx.deployVerticle(JMSConsumerVerticle::new, options, ar -> {
+            if (ar.succeeded()) {
+                System.out.println("JMS Consumer started");
+            } else {
+                System.err.println("Failed to start JMS consumers: " + ar.cause());
+            }
+        });
+    }
+
+    private static void setupOutboxDrainer(Vertx vertx, BrokerTransport broker) {
+        // With -Doutbox.dir the bridge writes to the outbox and this ships it
+        if (OutboxLog.configuredDirectory() == null) {
+            return;
+        }
+        DeploymentOptions options = new DeploymentOptions()
+            .setThreadingModel(ThreadingModel.VIRTUAL_THREAD)
+            .setConfig(broker.config().put("queue", QUEUE_NAME));
+        vertx.deployVerticle(OutboxDrainer::new, options, ar -> {
+            if (ar.succeeded()) {
+                System.out.println("Outbox drainer started");
+            } else {
+                System.err.println("Failed to start the outbox drainer: " + ar.cause());
+            }
+        });
+    }
+
+    private static ThreadingModel consumerThreading() {
+        String threading = System.getProperty(CONSUMER_THREADING_PROPERTY, System.getenv(CONSUMER_THREADING_ENV));
+        return "virtual".equalsIgnoreCase(threading) ? ThreadingModel.VIRTUAL_THREAD : ThreadingModel.WORKER;
+    }
+
+    private static void setupVirtualThreadMetrics(Vertx vertx) {
+        // Pinned carriers are what would make virtual threads no better than the worker pool.
+        // The same totals are on /metrics as vthreads.* when metrics are enabled
+        VirtualThreadMetrics metrics = VirtualThreadMetrics.start();
+        vertx.eventBus().consumer(VTHREAD_STATS_ADDRESS, message -> message.reply(metrics.snapshot()));
     }
 
     private static void sendTestMessage(Vertx vertx) {
-        JsonObject testMessage = new JsonObject()
-            .put("message", "Hello from Vert.x!")
-            .put("timestamp", System.currentTimeMillis());
-        
-        vertx.eventBus().publish("app.messages", testMessage);
+        // Codec is installed by JMSBridgeVerticle
+        BridgeMessage testMessage = new BridgeMessage("Hello from Vert.x!", System.currentTimeMillis());
+
+        // Every bridge instance consumes app.messages: send() hands the message to one of them,
+        // publish() would forward it to ActiveMQ once per instance
+        vertx.eventBus().send("app.messages", testMessage);
     }
 }
@@ -10,8 +10,11 @@
     <version>1.0-SNAPSHOT</version>
     
     <properties>
-        <vertx.version>4.5.1</vertx.version>
-        <java.version>17</java.version>
+        <vertx.version>4.5.24</vertx.version>
+        <!-- Must match the Netty version Vert.x depends on -->
+        <netty.version>4.1.130.Final</netty.version>
+        <micrometer.version>1.12.13</micrometer.version>
+        <java.version>21</java.version>
     </properties>
     
     <dependencies>
@@ -35,44 +38,115 @@
             <artifactId>vertx-web</artifactId>
             <version>${vertx.version}</version>
         </dependency>
+        
+        <!-- Native epoll transport (TCP_FASTOPEN, TCP_QUICKACK) -->
+        <dependency>
+            <groupId>io.netty</groupId>
+            <artifactId>netty-transport-native-epoll</artifactId>
+            <classifier>linux-x86_64</classifier>
+            <version>${netty.version}</version>
+        </dependency>
+        
+        <!-- Metrics (Prometheus) -->
+        <dependency>
+            <groupId>io.vertx</groupId>
+            <artifactId>vertx-micrometer-metrics</artifactId>
+            <version>${vertx.version}</version>
+        </dependency>
+        <dependency>
+            <groupId>io.micrometer</groupId>
+            <artifactId>micrometer-registry-prometheus</artifactId>
+            <version>${micrometer.version}</version>
+        </dependency>
+        
+        <!-- StreamingBodyHandler for /api/data/stream (sample-project-virtx, mvn install there first) -->
+        <dependency>
+            <groupId>org.example</groupId>
+            <artifactId>vertx-sample</artifactId>
+            <version>1.0-SNAPSHOT</version>
+        </dependency>
     </dependencies>
 </project>
 
 // 1. HTTP Server Example
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.micrometer.PrometheusScrapingHandler;
+import org.example.StreamingBodyHandler;
+import java.util.HashMap;
+import java.util.Map;
 
 public class HttpServerExample extends AbstractVerticle {
+    // Chunks of /api/data/stream bodies; see StreamingBodyHandler for the headers
+    static final String CHUNKS_ADDRESS = "api.data.chunks";
+    private static final long STREAM_BODY_LIMIT = 16 * 1024 * 1024;
+    private static final int STREAM_MAX_IN_FLIGHT_CHUNKS = 16;
+    
     @Override
     public void start(Promise<Void> startPromise) {
         // Create a Router
         Router router = Router.router(vertx);
         
-        // Enable body handling
-        router.route().handler(BodyHandler.create());
+        // Count in-flight requests so MainDeployer can drain them on shutdown;
+        // while draining, HTTP/1.1 responses close their connection
+        router.route().handler(ctx -> {
+            MainDeployer.inFlight.incrementAndGet();
+            ctx.addEndHandler(ar -> MainDeployer.inFlight.decrementAndGet());
+            ctx.addHeadersEndHandler(v -> {
+                if (MainDeployer.draining && ctx.request().version() != HttpVersion.HTTP_2) {
+                    ctx.response().putHeader("connection", "close");
+                }
+            });
+            ctx.next();
+        });
         
-        // GET endpoint
-        router.get("/api/hello").handler(ctx -> {
+        // Readiness: 503 until MainDeployer has warmed up, and again while draining
+        router.get("/ready").handler(ctx -> {
             ctx.response()
-                .putHeader("content-type", "application/json")
-                .end("{\"message\": \"Hello from Vert.x!\"}");
+                .setStatusCode(MainDeployer.ready ? 200 : 503)
+                .end();
         });
         
-        // POST endpoint
-        router.post("/api/data").handler(ctx -> {
-            // Get request body
-            String body = ctx.getBodyAsString();
-            
-            // Send response
+        // GET endpoint (no body handler, nothing is buffered)
+        router.get("/api/hello").handler(ctx -> {
             ctx.response()
                 .putHeader("content-type", "application/json")
-                .end("{\"received\": " + body + "}");
+                .end("{\"message\": \"Hello from Vert.x!\"}");
         });
         
-        // Start HTTP server
-        vertx.createHttpServer()
+        // POST endpoint: body is buffered but capped at 64 KB, file uploads disabled
+        // (one route for both handlers, so metrics label it "/api/data")
+        router.post("/api/data")
+            .handler(BodyHandler.create(false)
+                .setBodyLimit(64 * 1024)
+                .setPreallocateBodyBuffer(true))
+            .handler(ctx -> {
+                // Get request body
+                String body = ctx.getBodyAsString();
+                
+                // Send response
+                ctx.response()
+                    .putHeader("content-type", "application/json")
+                    .end("{\"received\": " + body + "}");
+            });
+        
+        // Streaming POST endpoint: chunks go to the event bus as they arrive, at most 16 in
+        // flight (the upload is paused meanwhile); 413 over 16 MB, 503 if nobody consumes them
+        consumeChunks();
+        router.post("/api/data/stream")
+            .handler(new StreamingBodyHandler(CHUNKS_ADDRESS, STREAM_BODY_LIMIT, STREAM_MAX_IN_FLIGHT_CHUNKS));
+        
+        // Prometheus scrape endpoint (see MainDeployer for the metrics options)
+        router.get("/metrics").handler(PrometheusScrapingHandler.create());
+        
+        // Start HTTP server with the configured tuning profile
+        vertx.createHttpServer(serverOptions(config().getString("profile", "default")))
             .requestHandler(router)
             .listen(8080, http -> {
                 if (http.succeeded()) {
@@ -83,22 +157,73 @@ public class HttpServerExample extends AbstractVerticle {
                 }
             });
     }
+    
+    // The consumer side of CHUNKS_ADDRESS: counts each stream's bytes and reports it once complete
+    private void consumeChunks() {
+        Map<String, Long> streams = new HashMap<>();
+        vertx.eventBus().<Buffer>consumer(CHUNKS_ADDRESS, message -> {
+            String id = message.headers().get(StreamingBodyHandler.STREAM_ID);
+            switch (message.headers().get(StreamingBodyHandler.STREAM_EVENT)) {
+                case "chunk":
+                    streams.merge(id, (long) message.body().length(), Long::sum);
+                    break;
+                case "end":
+                    System.out.println("Stream " + id + " complete: " + streams.getOrDefault(id, 0L) + " bytes");
+                    streams.remove(id);
+                    break;
+                default:
+                    // abort: the upload failed or exceeded the limit
+                    streams.remove(id);
+            }
+        });
+    }
+    
+    private HttpServerOptions serverOptions(String profile) {
+        if ("default".equals(profile)) {
+            return new HttpServerOptions();
+        }
+        // Tuned: low-latency sockets (FASTOPEN/QUICKACK need the native transport), cheap gzip
+        HttpServerOptions options = new HttpServerOptions()
+            .setTcpNoDelay(true)
+            .setTcpFastOpen(true)
+            .setTcpQuickAck(true)
+            .setAcceptBacklog(8192)
+            .setIdleTimeout(60)
+            .setCompressionSupported(true)
+            .setCompressionLevel(1);
+        if ("h2c".equals(profile)) {
+            // HTTP/2 cleartext: many concurrent streams over one connection
+            options.setHttp2ClearTextEnabled(true)
+                .setInitialSettings(new Http2Settings().setMaxConcurrentStreams(1000));
+        }
+        return options;
+    }
 }
 
 // 2. Web Client Example
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.core.buffer.Buffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 public class WebClientExample extends AbstractVerticle {
     @Override
     public void start(Promise<Void> startPromise) {
-        // Create Web Client
-        WebClient client = WebClient.create(vertx);
+        // Pooled client: per-host pools, coalesced GETs, retries and hedging (see FanOutClient)
+        FanOutClient client = new FanOutClient(vertx, config().getJsonObject("client", new JsonObject()));
         
-        // GET request example
-        client.get(8080, "localhost", "/api/hello")
-            .send()
+        // GET request example; identical concurrent GETs share one request
+        client.get("localhost", 8080, "/api/hello")
             .onSuccess(response -> {
                 System.out.println("Received response: " + response.bodyAsString());
             })
@@ -106,50 +231,512 @@ public class WebClientExample extends AbstractVerticle {
                 System.out.println("Error: " + err.getMessage());
             });
             
-        // POST request example
+        // POST request example (not idempotent: never coalesced, retried or hedged)
         JsonObject data = new JsonObject()
             .put("name", "John")
             .put("age", 30);
             
-        client.post(8080, "localhost", "/api/data")
-            .sendJsonObject(data)
+        client.post("localhost", 8080, "/api/data", data)
             .onSuccess(response -> {
                 System.out.println("POST response: " + response.bodyAsString());
             })
             .onFailure(err -> {
                 System.out.println("Error: " + err.getMessage());
             });
+        
+        startPromise.complete();
+    }
+}
+
+// Client layer for fan-out calls to the same endpoints.
+//
+// - One WebClient per host:port, each with its own pool: HTTP/2 with prior
+//   knowledge and multiplexing by default, or pipelined HTTP/1.1 keep-alive.
+//   Defaults come from the config; "hosts": {"host:port": {...}} overrides them.
+// - Single-flight GETs: a GET for a URI already in flight on the caller's event
+//   loop joins that request instead of sending another. Coalescing is per event
+//   loop, so no locking is needed and callbacks stay on the caller's thread.
+//   Coalesced callers share one response: treat it as read-only.
+// - GETs are retried on connection errors and 5xx with exponential backoff and
+//   full jitter, and hedged: if no response arrives within hedgeAfterMs (set it
+//   near the endpoint's p95), a second copy is sent and the first response wins.
+public class FanOutClient {
+    private static final String IN_FLIGHT_KEY = "fanout.client.inflight";
+    
+    private final Vertx vertx;
+    private final JsonObject defaults;
+    private final JsonObject hosts;
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    private final long hedgeAfterMs;
+    private final long timeoutMs;
+    
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    
+    public FanOutClient(Vertx vertx, JsonObject config) {
+        this.vertx = vertx;
+        this.defaults = config;
+        this.hosts = config.getJsonObject("hosts", new JsonObject());
+        this.maxRetries = config.getInteger("maxRetries", 2);
+        this.retryBackoffMs = config.getLong("retryBackoffMs", 20L);
+        this.hedgeAfterMs = config.getLong("hedgeAfterMs", 0L); // 0 disables hedging
+        this.timeoutMs = config.getLong("timeoutMs", 2000L);
+    }
+    
+    public Future<HttpResponse<Buffer>> get(String host, int port, String uri) {
+        Context context = vertx.getOrCreateContext();
+        Map<String, Future<HttpResponse<Buffer>>> inFlight = context.get(IN_FLIGHT_KEY);
+        if (inFlight == null) {
+            inFlight = new HashMap<>();
+            context.put(IN_FLIGHT_KEY, inFlight);
+        }
+        
+        String key = host + ":" + port + uri;
+        Future<HttpResponse<Buffer>> pending = inFlight.get(key);
+        if (pending != null) {
+            coalesced.increment();
+            return pending;
+        }
+        
+        WebClient client = client(host, port);
+        Supplier<Future<HttpResponse<Buffer>>> send = () -> {
+            requests.increment();
+            return client.get(port, host, uri).timeout(timeoutMs).send();
+        };
+        Future<HttpResponse<Buffer>> response = withRetries(() -> hedged(send), 0);
+        
+        Map<String, Future<HttpResponse<Buffer>>> calls = inFlight;
+        calls.put(key, response);
+        return response.onComplete(ar -> calls.remove(key));
+    }
+    
+    public Future<HttpResponse<Buffer>> post(String host, int port, String uri, JsonObject body) {
+        requests.increment();
+        return client(host, port).post(port, host, uri)
+            .timeout(timeoutMs)
+            .sendJsonObject(body);
+    }
+    
+    private WebClient client(String host, int port) {
+        String authority = host + ":" + port;
+        return clients.computeIfAbsent(authority, a -> {
+            JsonObject settings = defaults.copy().mergeIn(hosts.getJsonObject(a, new JsonObject()));
+            WebClientOptions options = new WebClientOptions()
+                .setMaxPoolSize(settings.getInteger("maxPoolSize", 50))
+                .setKeepAlive(true)
+                .setTcpNoDelay(true);
+            if (settings.getBoolean("http2", true)) {
+                // One or two connections carrying many concurrent streams
+                options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setHttp2ClearTextUpgrade(false)
+                    .setHttp2MaxPoolSize(settings.getInteger("http2MaxPoolSize", 2))
+                    .setHttp2MultiplexingLimit(settings.getInteger("http2MultiplexingLimit", 200));
+            } else {
+                options.setPipelining(true)
+                    .setPipeliningLimit(settings.getInteger("pipeliningLimit", 10));
+            }
+            return WebClient.create(vertx, options);
+        });
+    }
+    
+    private Future<HttpResponse<Buffer>> withRetries(Supplier<Future<HttpResponse<Buffer>>> attempt, int retry) {
+        return attempt.get()
+            .compose(response -> response.statusCode() >= 500 && retry < maxRetries
+                ? Future.failedFuture("HTTP " + response.statusCode())
+                : Future.succeededFuture(response))
+            .recover(err -> {
+                if (retry >= maxRetries) {
+                    return Future.failedFuture(err);
+                }
+                retries.increment();
+                long cap = retryBackoffMs << retry;
+                long delay = 1 + ThreadLocalRandom.current().nextLong(cap);
+                return vertx.timer(delay).compose(v -> withRetries(attempt, retry + 1));
+            });
+    }
+    
+    private Future<HttpResponse<Buffer>> hedged(Supplier<Future<HttpResponse<Buffer>>> send) {
+        if (hedgeAfterMs <= 0) {
+            return send.get();
+        }
+        Promise<HttpResponse<Buffer>> result = Promise.promise();
+        int[] failures = {0};
+        long timer = vertx.setTimer(hedgeAfterMs, id -> {
+            if (!result.future().isComplete()) {
+                hedges.increment();
+                send.get().onComplete(ar -> {
+                    if (ar.succeeded() && result.tryComplete(ar.result())) {
+                        hedgeWins.increment();
+                    } else if (ar.failed() && ++failures[0] == 2) {
+                        result.tryFail(ar.cause());
+                    }
+                });
+            }
+        });
+        send.get().onComplete(ar -> {
+            if (ar.succeeded()) {
+                vertx.cancelTimer(timer);
+                result.tryComplete(ar.result());
+            } else if (++failures[0] == 2 || vertx.cancelTimer(timer)) {
+                // Both copies failed, or the hedge was never sent
+                result.tryFail(ar.cause());
+            }
+        });
+        return result.future();
+    }
+    
+    public JsonObject stats() {
+        return new JsonObject()
+            .put("requests", requests.sum())
+            .put("coalesced", coalesced.sum())
+            .put("retries", retries.sum())
+            .put("hedges", hedges.sum())
+            .put("hedgeWins", hedgeWins.sum());
+    }
+    
+    public Future<Void> close() {
+        clients.values().forEach(WebClient::close);
+        return Future.succeededFuture();
     }
 }
 
 // 3. Event Bus Example
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.micrometer.backends.BackendRegistries;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
 public class EventBusExample extends AbstractVerticle {
     @Override
     public void start(Promise<Void> startPromise) {
-        // Register a consumer
-        vertx.eventBus().<String>consumer("news.uk", message -> {
-            System.out.println("Received news: " + message.body());
+        // NewsItem bodies use NewsItemCodec, registered once per Vertx by MainDeployer
+        // (registering it here would fail on the second instance deployed)
+        
+        // Register a consumer; requests are routed to the least busy instance
+        EventBusRouter.<NewsItem>serve(vertx, "news.uk", message -> {
+            System.out.println("Received news: " + message.body().getHeadline());
             
             // Reply to the message
             message.reply("News received!");
         });
         
-        // Send a message
-        vertx.eventBus().send("news.uk", "Breaking news!", ar -> {
-            if (ar.succeeded()) {
-                System.out.println("News delivered: " + ar.result().body());
+        // Send a request: 2 s reply timeout, at most 64 in flight per consumer,
+        // circuit opens for 10 s after 5 consecutive failures
+        EventBusRouter router = new EventBusRouter(vertx)
+            .route("news.uk", 2000, 64, 5, 10_000);
+        router.<String>request("news.uk", new NewsItem("Breaking news!", System.currentTimeMillis()))
+            .onSuccess(reply -> {
+                System.out.println("News delivered: " + reply.body());
+            })
+            .onFailure(err -> {
+                System.out.println("News delivery failed: " + err.getMessage());
+            });
+        
+        // Publish a message to all consumers
+        vertx.eventBus().publish("news.uk", new NewsItem("Broadcast news!", System.currentTimeMillis()));
+        
+        startPromise.complete();
+    }
+}
+
+// Request/reply on the event bus with a policy per address: a reply timeout, a
+// cap on requests in flight per consumer, and a circuit breaker that fails fast
+// after consecutive failures, then lets one probe through once openMs has passed.
+//
+// Consumers registered with serve() also listen on a private instance address
+// and announce it; each request goes to the instance with the fewest requests in
+// flight (ties broken at random) instead of round-robin, so one slow consumer
+// no longer backs up every caller. Until an instance is known, requests go to
+// the plain address. Reply latency is recorded in eventbus.request.latency
+// (tagged by address) when metrics are enabled, failures in
+// eventbus.request.failures.
+//
+// Not thread-safe: create one per verticle.
+public class EventBusRouter {
+    private final Vertx vertx;
+    private final MeterRegistry registry;
+    private final Map<String, Route> routes = new HashMap<>();
+    
+    public EventBusRouter(Vertx vertx) {
+        this.vertx = vertx;
+        this.registry = BackendRegistries.getDefaultNow();
+    }
+    
+    public EventBusRouter route(String address, long timeoutMs, int maxInFlight, int failureThreshold, long openMs) {
+        routes.put(address, new Route(address, timeoutMs, maxInFlight, failureThreshold, openMs));
+        return this;
+    }
+    
+    public <T> Future<Message<T>> request(String address, Object body) {
+        return routes.computeIfAbsent(address, a -> new Route(a, 5000, 256, 5, 5000)).request(body);
+    }
+    
+    public static <T> void serve(Vertx vertx, String address, Handler<Message<T>> handler) {
+        EventBus eventBus = vertx.eventBus();
+        String instance = address + "#" + UUID.randomUUID();
+        eventBus.consumer(instance, handler);
+        eventBus.consumer(address, handler); // plain sends and publishes
+        eventBus.consumer(address + ".discover", message -> eventBus.publish(address + ".announce", instance));
+        eventBus.publish(address + ".announce", instance);
+    }
+    
+    public JsonObject stats() {
+        JsonObject stats = new JsonObject();
+        routes.forEach((address, route) -> stats.put(address, route.stats()));
+        return stats;
+    }
+    
+    private final class Route {
+        private final String address;
+        private final long timeoutMs;
+        private final int maxInFlight;
+        private final int failureThreshold;
+        private final long openMs;
+        private final List<Instance> instances = new ArrayList<>();
+        private final Timer latency;
+        
+        private int consecutiveFailures;
+        private long openUntil; // 0 while the circuit is closed
+        private boolean probing;
+        private long requests;
+        private long timeouts;
+        private long failures;
+        private long rejected;
+        
+        Route(String address, long timeoutMs, int maxInFlight, int failureThreshold, long openMs) {
+            this.address = address;
+            this.timeoutMs = timeoutMs;
+            this.maxInFlight = maxInFlight;
+            this.failureThreshold = failureThreshold;
+            this.openMs = openMs;
+            this.latency = registry == null ? null : Timer.builder("eventbus.request.latency")
+                .tag("address", address)
+                .publishPercentileHistogram()
+                .register(registry);
+            
+            vertx.eventBus().<String>consumer(address + ".announce", message -> {
+                String instance = message.body();
+                if (instances.stream().noneMatch(known -> known.address.equals(instance))) {
+                    instances.add(new Instance(instance));
+                }
+            });
+            vertx.eventBus().publish(address + ".discover", null);
+        }
+        
+        <T> Future<Message<T>> request(Object body) {
+            requests++;
+            boolean probe = false;
+            if (openUntil != 0) {
+                if (probing || System.currentTimeMillis() < openUntil) {
+                    return reject("Circuit open for " + address);
+                }
+                probing = probe = true; // half-open: one request decides
+            }
+            Instance instance = leastBusy();
+            if (instance != null && instance.inFlight >= maxInFlight) {
+                if (probe) {
+                    probing = false;
+                }
+                return reject("All consumers of " + address + " are busy");
+            }
+            
+            String target = instance == null ? address : instance.address;
+            if (instance != null) {
+                instance.inFlight++;
+            }
+            boolean isProbe = probe;
+            long start = System.nanoTime();
+            return vertx.eventBus().<T>request(target, body, new DeliveryOptions().setSendTimeout(timeoutMs))
+                .onComplete(ar -> {
+                    if (instance != null) {
+                        instance.inFlight--;
+                    }
+                    if (isProbe) {
+                        probing = false;
+                    }
+                    if (ar.succeeded()) {
+                        consecutiveFailures = 0;
+                        openUntil = 0;
+                        if (latency != null) {
+                            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    } else {
+                        onFailure(instance, ar.cause());
+                    }
+                });
+        }
+        
+        private Instance leastBusy() {
+            int size = instances.size();
+            if (size == 0) {
+                return null;
+            }
+            int offset = ThreadLocalRandom.current().nextInt(size);
+            Instance best = null;
+            for (int i = 0; i < size; i++) {
+                Instance candidate = instances.get((offset + i) % size);
+                if (best == null || candidate.inFlight < best.inFlight) {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+        
+        private void onFailure(Instance instance, Throwable cause) {
+            ReplyFailure type = cause instanceof ReplyException
+                ? ((ReplyException) cause).failureType()
+                : ReplyFailure.ERROR;
+            if (registry != null) {
+                registry.counter("eventbus.request.failures", "address", address, "type", type.name()).increment();
+            }
+            if (type == ReplyFailure.NO_HANDLERS && instance != null) {
+                instances.remove(instance); // undeployed; not a failure of the service
+                return;
+            }
+            if (type == ReplyFailure.TIMEOUT) {
+                timeouts++;
             } else {
-                System.out.println("News delivery failed");
+                failures++;
             }
-        });
+            if (++consecutiveFailures >= failureThreshold || openUntil != 0) {
+                openUntil = System.currentTimeMillis() + openMs;
+            }
+        }
         
-        // Publish a message to all consumers
-        vertx.eventBus().publish("news.uk", "Broadcast news!");
+        private <T> Future<Message<T>> reject(String reason) {
+            rejected++;
+            return Future.failedFuture(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, reason));
+        }
+        
+        JsonObject stats() {
+            JsonObject inFlight = new JsonObject();
+            instances.forEach(instance -> inFlight.put(instance.address, instance.inFlight));
+            return new JsonObject()
+                .put("requests", requests)
+                .put("timeouts", timeouts)
+                .put("failures", failures)
+                .put("rejected", rejected)
+                .put("circuit", openUntil == 0 ? "closed" : probing ? "half-open" : "open")
+                .put("inFlight", inFlight);
+        }
+    }
+    
+    private static final class Instance {
+        private final String address;
+        private int inFlight;
+        
+        Instance(String address) {
+            this.address = address;
+        }
+    }
+}
+
+// Immutable message record, safe to share between local consumers
+public class NewsItem {
+    private final String headline;
+    private final long publishedAt;
+    
+    public NewsItem(String headline, long publishedAt) {
+        this.headline = headline;
+        this.publishedAt = publishedAt;
+    }
+    
+    public String getHeadline() {
+        return headline;
+    }
+    
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+}
+
+// Compact binary codec: [headline length][headline UTF-8][publishedAt]
+public class NewsItemCodec implements MessageCodec<NewsItem, NewsItem> {
+    @Override
+    public void encodeToWire(Buffer buffer, NewsItem item) {
+        byte[] headline = item.getHeadline().getBytes(StandardCharsets.UTF_8);
+        buffer.appendInt(headline.length)
+            .appendBytes(headline)
+            .appendLong(item.getPublishedAt());
+    }
+    
+    @Override
+    public NewsItem decodeFromWire(int pos, Buffer buffer) {
+        int length = buffer.getInt(pos);
+        String headline = buffer.getString(pos + 4, pos + 4 + length, "UTF-8");
+        return new NewsItem(headline, buffer.getLong(pos + 4 + length));
+    }
+    
+    @Override
+    public NewsItem transform(NewsItem item) {
+        // Zero-copy local delivery
+        return item;
+    }
+    
+    @Override
+    public String name() {
+        return "news-item";
+    }
+    
+    @Override
+    public byte systemCodecID() {
+        return -1;
     }
 }
 
 // 4. Periodic Task Example
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
 public class PeriodicExample extends AbstractVerticle {
+    private CoalescingPublisher updates;
+    private int deadlinesReached;
+    
     @Override
     public void start(Promise<Void> startPromise) {
         // Simple periodic task
@@ -157,10 +744,11 @@ public class PeriodicExample extends AbstractVerticle {
             System.out.println("Timer fired!");
         });
         
-        // Periodic task with EventBus
-        vertx.setPeriodic(5000, id -> {
-            vertx.eventBus().publish("periodic.updates", 
-                "Update at: " + System.currentTimeMillis());
+        // Periodic state updates with EventBus: changes are coalesced between ticks
+        // and only the delta is published (gzip above 1 KB), or nothing at all
+        updates = new CoalescingPublisher(vertx, "periodic.updates", 5000, 1024);
+        new SnapshotSubscriber(vertx, "periodic.updates", 10000, state -> {
+            System.out.println("State: " + state);
         });
         
         // Cancelable periodic task
@@ -177,28 +765,768 @@ public class PeriodicExample extends AbstractVerticle {
         vertx.setTimer(3000, id -> {
             System.out.println("This will fire once after 3 seconds");
         });
+        
+        // Per-entity timers (e.g. one deadline per task) go to the timing wheel
+        // rather than one Vert.x timer each; due ones arrive batched per tick
+        vertx.eventBus().<JsonObject>consumer("task.deadlines", message -> {
+            JsonArray due = message.body().getJsonArray("timers");
+            System.out.println(due.size() + " task deadline(s) reached: " + due);
+            deadlinesReached += due.size();
+            updates.put("deadlinesReached", deadlinesReached);
+        });
+        for (int task = 1; task <= 3; task++) {
+            vertx.eventBus().request(TimerWheelVerticle.SCHEDULE_ADDRESS, new JsonObject()
+                .put("delayMs", task * 1000L)
+                .put("address", "task.deadlines")
+                .put("payload", new JsonObject().put("taskId", task)));
+        }
+        
+        // Blocking periodic task (e.g. a JDBC query)
+        vertx.setPeriodic(10000, id -> {
+            if (context.threadingModel() == ThreadingModel.VIRTUAL_THREAD) {
+                // On a virtual thread, blocking only parks this handler
+                String report = loadReport();
+                System.out.println("Report: " + report);
+                updates.put("report", report);
+            } else {
+                // On an event loop, hand it to the worker pool
+                vertx.executeBlocking(this::loadReport, false)
+                    .onSuccess(report -> {
+                        System.out.println("Report: " + report);
+                        updates.put("report", report);
+                    });
+            }
+        });
+        
+        startPromise.complete();
     }
     
     private boolean someCondition() {
         return false; // Example condition
     }
+    
+    private String loadReport() {
+        try {
+            Thread.sleep(200); // Stands in for a blocking database call
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "generated at " + System.currentTimeMillis();
+    }
+}
+
+// Publishes a key/value state on an interval, coalescing updates in between.
+//
+// put()/remove() only record the change; the last write per key wins and a
+// write back to the published value cancels out. Each tick publishes one delta
+// {seq, set, removed} as a JSON Buffer, gzipped above compressThreshold bytes,
+// or nothing when nothing changed. The full state is served on
+// <address>.snapshot for new or lagging subscribers (see SnapshotSubscriber).
+//
+// Not thread-safe: create and update it on one context.
+public class CoalescingPublisher {
+    public static final String SEQ_HEADER = "seq";
+    public static final String TIMESTAMP_HEADER = "ts";
+    public static final String ENCODING_HEADER = "encoding";
+    private static final String GZIP = "gzip";
+    
+    private final Vertx vertx;
+    private final String address;
+    private final int compressThreshold;
+    private final JsonObject state = new JsonObject();
+    private final Map<String, Object> changes = new LinkedHashMap<>();
+    private final Set<String> removed = new LinkedHashSet<>();
+    private final long timerId;
+    private final MessageConsumer<Void> snapshots;
+    
+    private long seq;
+    private long published;
+    private long idleTicks;
+    private long coalesced;
+    private long rawBytes;
+    private long wireBytes;
+    
+    public CoalescingPublisher(Vertx vertx, String address, long intervalMs, int compressThreshold) {
+        this.vertx = vertx;
+        this.address = address;
+        this.compressThreshold = compressThreshold;
+        this.timerId = vertx.setPeriodic(intervalMs, id -> flush());
+        this.snapshots = vertx.eventBus().consumer(address + ".snapshot", message -> {
+            DeliveryOptions options = new DeliveryOptions();
+            message.reply(encode(new JsonObject().put("seq", seq).put("state", state), options), options);
+        });
+    }
+    
+    public void put(String key, Object value) {
+        removed.remove(key);
+        if (state.containsKey(key) && Objects.equals(state.getValue(key), value)) {
+            changes.remove(key);
+        } else if (changes.put(key, value) != null) {
+            coalesced++;
+        }
+    }
+    
+    public void remove(String key) {
+        changes.remove(key);
+        if (state.containsKey(key)) {
+            removed.add(key);
+        }
+    }
+    
+    private void flush() {
+        if (changes.isEmpty() && removed.isEmpty()) {
+            idleTicks++;
+            return;
+        }
+        JsonObject set = new JsonObject();
+        changes.forEach((key, value) -> {
+            state.put(key, value);
+            set.put(key, value);
+        });
+        removed.forEach(state::remove);
+        JsonObject delta = new JsonObject()
+            .put("seq", ++seq)
+            .put("set", set)
+            .put("removed", new JsonArray(List.copyOf(removed)));
+        changes.clear();
+        removed.clear();
+        
+        DeliveryOptions options = new DeliveryOptions()
+            .addHeader(SEQ_HEADER, Long.toString(seq))
+            .addHeader(TIMESTAMP_HEADER, Long.toString(System.currentTimeMillis()));
+        vertx.eventBus().publish(address, encode(delta, options), options);
+        published++;
+    }
+    
+    private Buffer encode(JsonObject body, DeliveryOptions options) {
+        Buffer raw = body.toBuffer();
+        rawBytes += raw.length();
+        if (raw.length() < compressThreshold) {
+            wireBytes += raw.length();
+            return raw;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_SPEED); }}) {
+            gzip.write(raw.getBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        options.addHeader(ENCODING_HEADER, GZIP);
+        wireBytes += out.size();
+        return Buffer.buffer(out.toByteArray());
+    }
+    
+    public static JsonObject decode(Message<Buffer> message) {
+        if (!GZIP.equals(message.headers().get(ENCODING_HEADER))) {
+            return message.body().toJsonObject();
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(message.body().getBytes()))) {
+            return Buffer.buffer(gzip.readAllBytes()).toJsonObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public JsonObject stats() {
+        return new JsonObject()
+            .put("seq", seq)
+            .put("published", published)
+            .put("idleTicks", idleTicks)
+            .put("coalesced", coalesced)
+            .put("rawBytes", rawBytes)
+            .put("wireBytes", wireBytes);
+    }
+    
+    public void close() {
+        vertx.cancelTimer(timerId);
+        snapshots.unregister();
+    }
+}
+
+// Keeps a local copy of a CoalescingPublisher's state by applying its deltas.
+// A subscriber that falls more than maxLagMs behind, or sees a gap in the
+// sequence, drops the deltas queued for it and fetches the latest snapshot
+// instead of replaying them; deltas already covered by the snapshot are skipped.
+public class SnapshotSubscriber {
+    private final Vertx vertx;
+    private final String address;
+    private final long maxLagMs;
+    private final Handler<JsonObject> handler;
+    private final MessageConsumer<Buffer> consumer;
+    
+    private JsonObject state = new JsonObject();
+    private long seq = -1;
+    private boolean resyncing;
+    private long skipped;
+    
+    public SnapshotSubscriber(Vertx vertx, String address, long maxLagMs, Handler<JsonObject> handler) {
+        this.vertx = vertx;
+        this.address = address;
+        this.maxLagMs = maxLagMs;
+        this.handler = handler;
+        this.consumer = vertx.eventBus().consumer(address, this::onDelta);
+        resync();
+    }
+    
+    private void onDelta(Message<Buffer> message) {
+        long deltaSeq = Long.parseLong(message.headers().get(CoalescingPublisher.SEQ_HEADER));
+        if (resyncing || deltaSeq <= seq) {
+            skipped++;
+            return;
+        }
+        long lagMs = System.currentTimeMillis() - Long.parseLong(message.headers().get(CoalescingPublisher.TIMESTAMP_HEADER));
+        if (lagMs > maxLagMs || deltaSeq != seq + 1) {
+            skipped++;
+            resync();
+            return;
+        }
+        
+        JsonObject delta = CoalescingPublisher.decode(message);
+        state.mergeIn(delta.getJsonObject("set"));
+        delta.getJsonArray("removed").forEach(key -> state.remove((String) key));
+        seq = deltaSeq;
+        handler.handle(state);
+    }
+    
+    private void resync() {
+        resyncing = true;
+        vertx.eventBus().<Buffer>request(address + ".snapshot", null).onComplete(ar -> {
+            resyncing = false;
+            if (ar.failed()) {
+                return; // the next delta is a gap and retries
+            }
+            JsonObject snapshot = CoalescingPublisher.decode(ar.result());
+            if (snapshot.getLong("seq") > seq) {
+                seq = snapshot.getLong("seq");
+                state = snapshot.getJsonObject("state");
+                handler.handle(state);
+            }
+        });
+    }
+    
+    public long skipped() {
+        return skipped;
+    }
+    
+    public void close() {
+        consumer.unregister();
+    }
+}
+
+// Hierarchical timing wheel (Varghese & Lauck) for large numbers of timers.
+//
+// Four levels of 512 slots: level 0 moves one slot per tick, each higher level
+// one slot per turn of the level below, so 10 ms ticks cover about 21 years.
+// Each slot is a doubly-linked list, so schedule and cancel are O(1). When a
+// higher-level slot comes up its timers are moved down (cascaded), at most once
+// per level. Deadlines are kept in milliseconds and rounded up to the next tick,
+// so a timer never fires early and periodic timers do not drift.
+//
+// Not thread-safe: confine it to one context and call advance() every tick.
+public class TimerWheel {
+    private static final int BITS = 9;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (BITS * LEVELS)) - 1;
+    
+    private final long tickMs;
+    private final long startNanos = System.nanoTime();
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    private final Map<Long, Timer> timers = new HashMap<>();
+    private long nextId = 1;
+    private long tick; // next tick to process
+    
+    public TimerWheel(long tickMs) {
+        this.tickMs = tickMs;
+    }
+    
+    // periodMs <= 0 schedules a one-shot timer; ids start at 1 and increase
+    public long schedule(long delayMs, long periodMs, String address, Object payload) {
+        Timer timer = new Timer(nextId++, address, payload, elapsedMs() + delayMs, periodMs);
+        timers.put(timer.id, timer);
+        insert(timer);
+        return timer.id;
+    }
+    
+    public boolean cancel(long id) {
+        Timer timer = timers.remove(id);
+        if (timer == null) {
+            return false;
+        }
+        if (timer.level >= 0) {
+            unlink(timer);
+        }
+        timer.cancelled = true; // in case it is due in the tick being fired
+        return true;
+    }
+    
+    // Fires every timer due up to now, oldest tick first; returns how many fired
+    public int advance(Consumer<Timer> handler) {
+        long target = elapsedMs() / tickMs;
+        int fired = 0;
+        while (tick <= target) {
+            int index = (int) (tick & MASK);
+            if (index == 0) {
+                for (int level = 1; level < LEVELS; level++) {
+                    int slot = (int) (tick >>> (BITS * level)) & MASK;
+                    cascade(level, slot);
+                    if (slot != 0) {
+                        break;
+                    }
+                }
+            }
+            
+            // Detach the slot first: handlers may schedule or cancel timers
+            Timer due = slots[0][index];
+            slots[0][index] = null;
+            for (Timer timer = due; timer != null; timer = timer.next) {
+                timer.level = -1;
+            }
+            tick++;
+            
+            while (due != null) {
+                Timer timer = due;
+                due = timer.next;
+                timer.prev = timer.next = null;
+                if (timer.cancelled) {
+                    continue;
+                }
+                handler.accept(timer);
+                fired++;
+                if (timer.cancelled) {
+                    continue;
+                }
+                if (timer.periodMs > 0) {
+                    timer.deadlineMs += timer.periodMs; // fixed rate
+                    insert(timer);
+                } else {
+                    timers.remove(timer.id);
+                }
+            }
+        }
+        return fired;
+    }
+    
+    public int size() {
+        return timers.size();
+    }
+    
+    public long tickMs() {
+        return tickMs;
+    }
+    
+    // How far the wheel is behind the clock; stays below tickMs when advance() keeps up
+    public long lagMs() {
+        return elapsedMs() - tick * tickMs;
+    }
+    
+    private long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+    
+    private void insert(Timer timer) {
+        long expires = Math.max((timer.deadlineMs + tickMs - 1) / tickMs, tick);
+        long delta = Math.min(expires - tick, MAX_DELTA); // beyond the top level: re-placed on cascade
+        int level = 0;
+        while (delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((tick + delta) >>> (BITS * level)) & MASK;
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        slots[level][slot] = timer;
+    }
+    
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = timer.next = null;
+        timer.level = -1;
+    }
+    
+    private void cascade(int level, int slot) {
+        Timer timer = slots[level][slot];
+        slots[level][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            insert(timer);
+            timer = next;
+        }
+    }
+    
+    public static final class Timer {
+        private final long id;
+        private final String address;
+        private final Object payload;
+        private final long periodMs;
+        private long deadlineMs;
+        private boolean cancelled;
+        private int level = -1;
+        private int slot;
+        private Timer prev;
+        private Timer next;
+        
+        private Timer(long id, String address, Object payload, long deadlineMs, long periodMs) {
+            this.id = id;
+            this.address = address;
+            this.payload = payload;
+            this.deadlineMs = deadlineMs;
+            this.periodMs = periodMs;
+        }
+        
+        public long id() {
+            return id;
+        }
+        
+        public String address() {
+            return address;
+        }
+        
+        public Object payload() {
+            return payload;
+        }
+    }
+}
+
+// Runs a TimerWheel on its event loop, driven by one Vert.x periodic timer
+// however many timers are scheduled. Each tick the due timers are grouped by
+// address and every address gets a single message {timers: [{id, payload}]}.
+//
+//   timers.schedule  {delayMs, periodMs?, address, payload?}, replies with the id
+//   timers.cancel    the id, replies true if the timer was still pending
+//   timers.stats     replies {pending, fired, batches, maxLagMs}
+public class TimerWheelVerticle extends AbstractVerticle {
+    public static final String SCHEDULE_ADDRESS = "timers.schedule";
+    public static final String CANCEL_ADDRESS = "timers.cancel";
+    public static final String STATS_ADDRESS = "timers.stats";
+    
+    private final Map<String, JsonArray> batches = new HashMap<>();
+    private TimerWheel wheel;
+    private long fired;
+    private long batchCount;
+    private long maxLagMs;
+    
+    @Override
+    public void start(Promise<Void> startPromise) {
+        wheel = new TimerWheel(config().getLong("tickMs", 10L));
+        vertx.setPeriodic(wheel.tickMs(), id -> tick());
+        
+        vertx.eventBus().<JsonObject>consumer(SCHEDULE_ADDRESS, message -> {
+            JsonObject request = message.body();
+            message.reply(wheel.schedule(request.getLong("delayMs"), request.getLong("periodMs", 0L),
+                request.getString("address"), request.getValue("payload")));
+        });
+        vertx.eventBus().<Long>consumer(CANCEL_ADDRESS, message -> message.reply(wheel.cancel(message.body())));
+        vertx.eventBus().consumer(STATS_ADDRESS, message -> message.reply(new JsonObject()
+            .put("pending", wheel.size())
+            .put("fired", fired)
+            .put("batches", batchCount)
+            .put("maxLagMs", maxLagMs)));
+        
+        startPromise.complete();
+    }
+    
+    private void tick() {
+        maxLagMs = Math.max(maxLagMs, wheel.lagMs());
+        fired += wheel.advance(timer -> batches
+            .computeIfAbsent(timer.address(), address -> new JsonArray())
+            .add(new JsonObject().put("id", timer.id()).put("payload", timer.payload())));
+        if (batches.isEmpty()) {
+            return;
+        }
+        batches.forEach((address, due) -> vertx.eventBus().publish(address, new JsonObject().put("timers", due)));
+        batchCount += batches.size();
+        batches.clear();
+    }
+}
+
+// Compares N Vert.x periodic timers with one TimerWheel driven by a single
+// periodic timer: retained heap per timer and firing jitter (actual minus due
+// time, fixed rate). First firings are spread evenly over the second period
+// after scheduling starts, so both modes fire at the same instants.
+//
+// Run with: java TimerWheelBenchmark [counts] [periodMs] [seconds], defaults
+// 10000,100000,1000000 5000 15, and a heap large enough for 1M timers (-Xmx2g).
+public class TimerWheelBenchmark {
+    private static final long TICK_MS = 10;
+    
+    public static void main(String[] args) throws Exception {
+        String[] counts = (args.length > 0 ? args[0] : "10000,100000,1000000").split(",");
+        long periodMs = args.length > 1 ? Long.parseLong(args[1]) : 5000;
+        long durationMs = (args.length > 2 ? Long.parseLong(args[2]) : 15) * 1000;
+        
+        System.out.printf("%-6s %8s %9s %12s %9s %8s %8s %8s%n",
+            "mode", "timers", "heap MB", "bytes/timer", "fired", "p50 ms", "p99 ms", "max ms");
+        for (String count : counts) {
+            for (boolean wheel : new boolean[]{false, true}) {
+                System.out.println(new Run(Integer.parseInt(count.trim()), periodMs, durationMs, wheel).measure());
+            }
+        }
+    }
+    
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    // One measurement; the timer state is confined to the Vert.x context
+    private static final class Run {
+        private final int count;
+        private final long periodMs;
+        private final long durationMs;
+        private final boolean wheel;
+        private final long[] due;
+        private final int[] jitterMicros;
+        private int samples;
+        private long recordFrom;
+        private long recordUntil;
+        
+        Run(int count, long periodMs, long durationMs, boolean wheel) {
+            this.count = count;
+            this.periodMs = periodMs;
+            this.durationMs = durationMs;
+            this.wheel = wheel;
+            this.due = new long[count];
+            this.jitterMicros = new int[(int) Math.min(count * (durationMs / periodMs + 1), Integer.MAX_VALUE - 8)];
+        }
+        
+        String measure() throws Exception {
+            Vertx vertx = Vertx.vertx();
+            Context context = vertx.getOrCreateContext();
+            long baseline = usedHeap();
+            
+            // Jitter is recorded from the first firing on, for durationMs
+            long base = System.nanoTime();
+            recordFrom = base + periodMs * 1_000_000;
+            recordUntil = recordFrom + durationMs * 1_000_000;
+            CompletableFuture<Void> scheduled = new CompletableFuture<>();
+            context.runOnContext(v -> {
+                TimerWheel timers = wheel ? new TimerWheel(TICK_MS) : null;
+                if (wheel) {
+                    // Wheel ids start at 1, so the id locates the timer's slot in due[]
+                    vertx.setPeriodic(TICK_MS, id -> timers.advance(timer -> fired((int) (timer.id() - 1))));
+                }
+                schedule(vertx, timers, base, 0, scheduled);
+            });
+            scheduled.get();
+            long retained = usedHeap() - baseline;
+            
+            Thread.sleep(Math.max((recordUntil - System.nanoTime()) / 1_000_000, 0) + 100);
+            CompletableFuture<int[]> result = new CompletableFuture<>();
+            context.runOnContext(v -> result.complete(Arrays.copyOf(jitterMicros, samples)));
+            int[] sorted = result.get();
+            vertx.close().toCompletionStage().toCompletableFuture().get();
+            
+            Arrays.sort(sorted);
+            return String.format("%-6s %8d %9.1f %12d %9d %8.1f %8.1f %8.1f",
+                wheel ? "wheel" : "vertx", count, retained / 1048576.0, retained / count, sorted.length,
+                percentile(sorted, 50), percentile(sorted, 99), percentile(sorted, 100));
+        }
+        
+        // In chunks, so scheduling a million timers does not block the event loop.
+        // First firings are fixed relative to base, however long scheduling takes
+        private void schedule(Vertx vertx, TimerWheel timers, long base, int from, CompletableFuture<Void> scheduled) {
+            int to = Math.min(from + 10_000, count);
+            for (int i = from; i < to; i++) {
+                due[i] = base + (periodMs + periodMs * i / count) * 1_000_000;
+                long delayMs = Math.max((due[i] - System.nanoTime() + 999_999) / 1_000_000, 1);
+                if (timers != null) {
+                    timers.schedule(delayMs, periodMs, null, null);
+                } else {
+                    int index = i;
+                    vertx.setPeriodic(delayMs, periodMs, id -> fired(index));
+                }
+            }
+            if (to < count) {
+                vertx.runOnContext(v -> schedule(vertx, timers, base, to, scheduled));
+            } else {
+                scheduled.complete(null);
+            }
+        }
+        
+        private void fired(int index) {
+            long now = System.nanoTime();
+            long jitter = now - due[index];
+            due[index] += periodMs * 1_000_000;
+            if (now >= recordFrom && now < recordUntil && samples < jitterMicros.length) {
+                jitterMicros[samples++] = (int) Math.max(jitter / 1_000, 0);
+            }
+        }
+        
+        private static double percentile(int[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1000.0;
+        }
+    }
 }
 
 // 5. Main Deployer
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Verticle;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.micrometer.Label;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class MainDeployer {
+    private static final int WARM_UP_ROUNDS = 100;
+    private static final int WARM_UP_CONCURRENCY = 32;
+    private static final long DRAIN_TIMEOUT_MS = 30_000;
+    
+    // Shared with HttpServerExample's request counter and /ready route
+    static final AtomicInteger inFlight = new AtomicInteger();
+    static volatile boolean ready;
+    static volatile boolean draining;
+    
     public static void main(String[] args) {
-        Vertx vertx = Vertx.vertx();
-        
-        // Deploy all verticles
-        vertx.deployVerticle(new HttpServerExample())
-            .compose(id -> vertx.deployVerticle(new WebClientExample()))
-            .compose(id -> vertx.deployVerticle(new EventBusExample()))
-            .compose(id -> vertx.deployVerticle(new PeriodicExample()))
-            .onSuccess(id -> {
-                System.out.println("All verticles deployed successfully");
+        // HTTP latency histograms per route, event-bus counts per address, served on /metrics
+        Vertx vertx = Vertx.vertx(new VertxOptions()
+            .setPreferNativeTransport(true) // epoll when netty-transport-native-epoll is on the classpath
+            .setMetricsOptions(new MicrometerMetricsOptions()
+                .setEnabled(true)
+                .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true).setPublishQuantiles(true))
+                .addLabels(Label.HTTP_ROUTE, Label.EB_ADDRESS)));
+        
+        // SIGTERM: drain, then undeploy and close instead of dropping in-flight work.
+        // Installed first, so a SIGTERM during startup still undeploys what is up
+        List<Future<String>> deployed = new CopyOnWriteArrayList<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(vertx, deployed)));
+        
+        // Typed bodies: passed by reference locally, binary-encoded across a cluster.
+        // A default codec can be registered only once per Vertx, so not in a verticle's start()
+        vertx.eventBus().registerDefaultCodec(NewsItem.class, new NewsItemCodec());
+        
+        // Deploy all verticles: the independent ones in parallel, then the ones that
+        // call them (the web client needs the HTTP server, the periodic tasks the timer wheel)
+        long started = System.nanoTime();
+        Future.all(
+                deploy(vertx, deployed, new HttpServerExample(), new DeploymentOptions()),
+                deploy(vertx, deployed, new TimerWheelVerticle(), new DeploymentOptions()),
+                deploy(vertx, deployed, new EventBusExample(), new DeploymentOptions()))
+            // JIT-compile the request path and open connections before taking traffic
+            .compose(v -> warmUp(vertx))
+            .compose(v -> Future.all(
+                deploy(vertx, deployed, new WebClientExample(), new DeploymentOptions()),
+                // Timer handlers may block: run them on virtual threads (Java 21)
+                deploy(vertx, deployed, new PeriodicExample(),
+                    new DeploymentOptions().setThreadingModel(ThreadingModel.VIRTUAL_THREAD))))
+            .onSuccess(v -> {
+                ready = !draining;
+                System.out.println("All verticles deployed successfully, ready in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
             })
             .onFailure(err -> {
                 System.out.println("Deployment failed: " + err.getMessage());
             });
     }
+    
+    // Recorded when called, i.e. in declaration order, not in the order the parallel deployments complete
+    private static Future<String> deploy(Vertx vertx, List<Future<String>> deployed, Verticle verticle,
+                                         DeploymentOptions options) {
+        Future<String> deployment = vertx.deployVerticle(verticle, options);
+        deployed.add(deployment);
+        return deployment;
+    }
+    
+    // Rounds of concurrent GET /api/hello and POST /api/data over loopback
+    private static Future<Void> warmUp(Vertx vertx) {
+        HttpClient client = vertx.createHttpClient();
+        Future<Void> rounds = Future.succeededFuture();
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            rounds = rounds.compose(v -> {
+                List<Future<?>> requests = new ArrayList<>();
+                for (int i = 0; i < WARM_UP_CONCURRENCY; i++) {
+                    requests.add(i % 2 == 0
+                        ? client.request(HttpMethod.GET, 8080, "localhost", "/api/hello")
+                            .compose(req -> req.send())
+                            .compose(response -> response.body())
+                        : client.request(HttpMethod.POST, 8080, "localhost", "/api/data")
+                            .compose(req -> req.send("{\"warmUp\": true}"))
+                            .compose(response -> response.body()));
+                }
+                return Future.join(requests).mapEmpty();
+            });
+        }
+        return rounds
+            .otherwise(err -> {
+                System.out.println("Warm-up failed, starting cold: " + err.getMessage());
+                return null;
+            })
+            .eventually(() -> client.close());
+    }
+    
+    // Runs on the shutdown hook thread; the JVM exits once this returns
+    private static void shutdown(Vertx vertx, List<Future<String>> deployed) {
+        ready = false;
+        draining = true;
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        
+        // In-flight HTTP requests first, then undeploy in reverse declaration order (callers
+        // before the verticles they call), letting queued event-bus messages drain in between.
+        // Deployments still starting or failed are skipped; vertx.close() takes care of them
+        Future<Void> drained = awaitIdle(vertx, deadline);
+        for (int i = deployed.size() - 1; i >= 0; i--) {
+            Future<String> deployment = deployed.get(i);
+            if (!deployment.succeeded()) {
+                continue;
+            }
+            drained = drained
+                .compose(v -> vertx.undeploy(deployment.result()).otherwiseEmpty())
+                .compose(v -> awaitIdle(vertx, deadline));
+        }
+        try {
+            drained.compose(v -> vertx.close())
+                .toCompletionStage().toCompletableFuture()
+                .get(DRAIN_TIMEOUT_MS + 5_000, TimeUnit.MILLISECONDS);
+            System.out.println("Shut down cleanly");
+        } catch (Exception e) {
+            System.out.println("Shutdown did not complete: " + e);
+        }
+    }
+    
+    private static Future<Void> awaitIdle(Vertx vertx, long deadline) {
+        long outstanding = inFlight.get() + pendingEventBusMessages();
+        if (outstanding == 0 || System.currentTimeMillis() >= deadline) {
+            if (outstanding > 0) {
+                System.out.println("Drain timeout, dropping " + outstanding + " request(s)/message(s)");
+            }
+            return Future.succeededFuture();
+        }
+        Promise<Void> promise = Promise.promise();
+        vertx.setTimer(50, id -> awaitIdle(vertx, deadline).onComplete(promise));
+        return promise.future();
+    }
+    
+    private static long pendingEventBusMessages() {
+        MeterRegistry registry = BackendRegistries.getDefaultNow();
+        return registry == null ? 0
+            : (long) registry.find("vertx.eventbus.pending").gauges().stream().mapToDouble(Gauge::value).sum();
+    }
 }